@@ -0,0 +1,61 @@
+package com.immfly.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.immfly.models.Category;
+import com.immfly.models.Product;
+import com.immfly.repositories.ProductRepository;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import javax.cache.CacheManager;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Regions of the Hibernate second-level cache, each a bounded Caffeine cache with
+ * its own size and time to live. Every context gets its own provider, so test
+ * contexts never share or close each other's regions.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(
+            @Value("${catalog.second-level-cache.product.max-size:10000}") long productMaxSize,
+            @Value("${catalog.second-level-cache.product.ttl:PT30M}") Duration productTtl,
+            @Value("${catalog.second-level-cache.category.max-size:1000}") long categoryMaxSize,
+            @Value("${catalog.second-level-cache.category.ttl:PT30M}") Duration categoryTtl,
+            @Value("${catalog.second-level-cache.products-by-category.max-size:1000}") long byCategoryMaxSize,
+            @Value("${catalog.second-level-cache.products-by-category.ttl:PT10M}") Duration byCategoryTtl) {
+        CacheManager cacheManager = new CaffeineCachingProvider().getCacheManager();
+        cacheManager.createCache(Product.CACHE_REGION, region(productMaxSize, productTtl));
+        cacheManager.createCache(Category.CACHE_REGION, region(categoryMaxSize, categoryTtl));
+        cacheManager.createCache(ProductRepository.BY_CATEGORY_CACHE_REGION, region(byCategoryMaxSize, byCategoryTtl));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, region(byCategoryMaxSize, byCategoryTtl));
+        // Query results are checked against these table timestamps, so they must outlive every cached result.
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, region(null, null));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(Long maxSize, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        if (maxSize != null) {
+            configuration.setMaximumSize(OptionalLong.of(maxSize));
+        }
+        if (ttl != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+        configuration.setStatisticsEnabled(true);
+        configuration.setNativeStatisticsEnabled(true);
+        return configuration;
+    }
+}
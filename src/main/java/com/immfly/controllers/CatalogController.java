@@ -0,0 +1,39 @@
+package com.immfly.controllers;
+
+import com.immfly.dto.CatalogChanges;
+import com.immfly.services.CatalogChangeLog;
+import com.immfly.services.CategoryService;
+import com.immfly.services.ProductService;
+import com.immfly.services.cache.CacheStats;
+import com.immfly.services.cache.SecondLevelCacheStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import java.util.Map;
+import java.util.TreeMap;
+
+@RestController
+@RequestMapping("/api/catalog")
+@RequiredArgsConstructor
+public class CatalogController {
+    private final CatalogChangeLog catalogChangeLog;
+    private final ProductService productService;
+    private final CategoryService categoryService;
+    private final SecondLevelCacheStats secondLevelCacheStats;
+
+    @GetMapping("/changes")
+    public CatalogChanges getChanges(@RequestParam(defaultValue = "0") long since,
+                                     @RequestParam(required = false) Long epoch,
+                                     @RequestParam(defaultValue = "false") boolean reset,
+                                     @RequestParam(defaultValue = "1000") int limit) {
+        return catalogChangeLog.getChanges(since, epoch, reset, limit);
+    }
+
+    @GetMapping("/cache-stats")
+    public Map<String, CacheStats> getCacheStats() {
+        Map<String, CacheStats> stats = new TreeMap<>();
+        stats.putAll(productService.getCacheStats());
+        stats.putAll(categoryService.getCacheStats());
+        secondLevelCacheStats.getStats().forEach((region, regionStats) -> stats.put("hibernate:" + region, regionStats));
+        return stats;
+    }
+}
@@ -1,28 +1,74 @@
 package com.immfly.controllers;
 
+import com.immfly.dto.CategoryTreeNode;
+import com.immfly.dto.ProductDTO;
+import com.immfly.exceptions.ResourceNotFoundException;
 import com.immfly.models.Category;
+import com.immfly.models.Product;
 import com.immfly.services.CategoryService;
+import com.immfly.services.ProductService;
+import com.immfly.services.cache.CatalogVersion;
+import com.immfly.services.cache.CategoryTree;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/categories")
 @RequiredArgsConstructor
 public class CategoryController {
     private final CategoryService categoryService;
+    private final ProductService productService;
+    private final CatalogVersion catalogVersion;
 
     @GetMapping
-    public List<Category> getAllCategories() {
+    public List<Category> getAllCategories(WebRequest request) {
+        if (request.checkNotModified(catalogVersion.etag())) {
+            return null;
+        }
         return categoryService.getAllCategories();
     }
 
+    @GetMapping("/tree")
+    public List<CategoryTreeNode> getCategoryTree(WebRequest request) {
+        if (request.checkNotModified(catalogVersion.etag())) {
+            return null;
+        }
+        return categoryService.getCategoryTree().getRoots();
+    }
+
     @GetMapping("/{id}")
-    public Category getCategoryById(@PathVariable Long id) {
+    public Category getCategoryById(@PathVariable Long id, WebRequest request) {
+        if (request.checkNotModified(catalogVersion.etag())) {
+            return null;
+        }
         return categoryService.getCategoryById(id);
     }
 
+    // The subtree is resolved from the in-memory tree, so its products come from a
+    // single IN query instead of walking lazy subcategories.
+    @GetMapping("/{id}/products")
+    public List<ProductDTO> getCategoryProducts(@PathVariable Long id,
+                                                @RequestParam(defaultValue = "false") boolean includeDescendants,
+                                                WebRequest request) {
+        if (request.checkNotModified(catalogVersion.etag())) {
+            return null;
+        }
+        CategoryTree tree = categoryService.getCategoryTree();
+        if (!tree.contains(id)) {
+            throw new ResourceNotFoundException("Category not found with id: " + id);
+        }
+        List<Product> products = includeDescendants
+                ? productService.getProductsByCategories(tree.subtreeIds(id))
+                : productService.getProductsByCategory(id);
+        return products.stream()
+                .map(ProductDTO::from)
+                .collect(Collectors.toList());
+    }
+
     @PostMapping
     public Category createCategory(@RequestBody Category category) {
         return categoryService.createCategory(category);
@@ -38,4 +84,4 @@ public class CategoryController {
         categoryService.deleteCategory(id);
         return ResponseEntity.ok().build();
     }
-} 
\ No newline at end of file
+}
@@ -2,74 +2,75 @@ package com.immfly.controllers;
 
 import com.immfly.models.*;
 import com.immfly.services.OrderService;
+import com.immfly.services.PaymentAttempt;
+import com.immfly.services.PaymentAttemptService;
+import com.immfly.services.ProductService;
+import com.immfly.services.idempotency.IdempotencyService;
+import com.immfly.dto.OrderFilter;
+import com.immfly.dto.OrderItemRequest;
+import com.immfly.dto.OrderPage;
 import com.immfly.dto.OrderRequest;
-import com.immfly.repositories.ProductRepository;
-import com.immfly.exceptions.ResourceNotFoundException;
+import com.immfly.dto.OrderResponse;
+import com.immfly.dto.PaymentAttemptResponse;
+import com.immfly.exceptions.BadRequestException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import java.net.URI;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
-import java.util.ArrayList;
 
 @RestController
 @RequestMapping("/api/orders")
 @RequiredArgsConstructor
 public class OrderController {
+    private static final long MAX_PAYMENT_WAIT_SECONDS = 25;
+
     private final OrderService orderService;
-    private final ProductRepository productRepository;
+    private final PaymentAttemptService paymentAttemptService;
+    private final ProductService productService;
+    private final IdempotencyService idempotencyService;
 
     @GetMapping
-    public List<Order> getAllOrders() {
-        return orderService.getAllOrders();
+    public OrderPage<OrderResponse> getOrders(OrderFilter filter,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "50") int limit) {
+        return orderService.getOrders(filter, cursor, limit).map(OrderResponse::from);
     }
 
     @GetMapping("/{id}")
-    public Order getOrderById(@PathVariable Long id) {
-        return orderService.getOrderById(id);
+    public OrderResponse getOrderById(@PathVariable Long id) {
+        return OrderResponse.from(orderService.getOrderById(id));
     }
 
     @PostMapping
-    public Order createOrder(@RequestBody OrderRequest request) {
-        Order order = Order.builder()
-                .buyerEmail(request.getBuyerEmail())
-                .seatLetter(request.getSeatLetter())
-                .seatNumber(request.getSeatNumber())
-                .items(new ArrayList<>())
-                .build();
-
-        request.getItems().forEach(itemRequest -> {
-            Product product = productRepository.findById(itemRequest.getProductId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + itemRequest.getProductId()));
-            OrderItem orderItem = OrderItem.builder()
-                    .order(order)
-                    .product(product)
-                    .quantity(itemRequest.getQuantity())
-                    .build();
-            order.getItems().add(orderItem);
+    public ResponseEntity<?> createOrder(@RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                         @RequestBody OrderRequest request) {
+        return idempotencyService.execute(idempotencyKey, "POST /api/orders", request, () -> {
+            Order order = convertToEntity(request);
+            order.getItems().forEach(item -> item.setOrder(order));
+            return ResponseEntity.ok(OrderResponse.from(orderService.createOrder(order)));
         });
-
-        return orderService.createOrder(order);
     }
 
     @PutMapping("/{id}")
-    public Order updateOrder(@PathVariable Long id, @RequestBody OrderRequest request) {
-        Order order = Order.builder()
-                .buyerEmail(request.getBuyerEmail())
-                .seatLetter(request.getSeatLetter())
-                .seatNumber(request.getSeatNumber())
-                .items(request.getItems().stream()
-                        .map(itemRequest -> {
-                            Product product = productRepository.findById(itemRequest.getProductId())
-                                    .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + itemRequest.getProductId()));
-                            return OrderItem.builder()
-                                    .product(product)
-                                    .quantity(itemRequest.getQuantity())
-                                    .build();
-                        })
-                        .collect(Collectors.toList()))
-                .build();
-        return orderService.updateOrder(id, order);
+    public OrderResponse updateOrder(@PathVariable Long id, @RequestBody OrderRequest request) {
+        return OrderResponse.from(orderService.updateOrder(id, convertToEntity(request)));
+    }
+
+    // Adds, changes or (with quantity 0) removes a single line without resending the order.
+    @PatchMapping("/{id}/items")
+    public OrderResponse updateOrderItem(@PathVariable Long id, @RequestBody OrderItemRequest request) {
+        if (request.getProductId() == null || request.getQuantity() == null || request.getQuantity() < 0) {
+            throw new BadRequestException("productId and a quantity of 0 or more are required");
+        }
+        Product product = productService.getProductById(request.getProductId());
+        return OrderResponse.from(orderService.updateOrderItem(id, product, request.getQuantity()));
     }
 
     @DeleteMapping("/{id}")
@@ -79,17 +80,71 @@ public class OrderController {
     }
 
     @PostMapping("/{id}/payment")
-    public Order processPayment(@PathVariable Long id, @RequestParam String cardToken) {
-        return orderService.processPayment(id, cardToken);
+    public ResponseEntity<?> processPayment(@RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                            @PathVariable Long id,
+                                            @RequestParam String cardToken,
+                                            @RequestParam(defaultValue = "false") boolean async) {
+        String operation = "POST /api/orders/" + id + "/payment";
+        return idempotencyService.execute(idempotencyKey, operation, List.of(cardToken, async), () -> {
+            if (!async) {
+                return ResponseEntity.ok(OrderResponse.from(orderService.processPayment(id, cardToken)));
+            }
+
+            PaymentAttempt attempt = paymentAttemptService.submit(id, cardToken);
+            URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path("/api/orders/{id}/payment-attempts/{attemptId}")
+                    .buildAndExpand(id, attempt.getId())
+                    .toUri();
+            return ResponseEntity.accepted().location(location).body(PaymentAttemptResponse.from(attempt));
+        });
+    }
+
+    // With waitSeconds > 0 the request is parked, not holding a servlet thread,
+    // until the attempt completes or the wait elapses.
+    @GetMapping("/{id}/payment-attempts/{attemptId}")
+    public CompletableFuture<PaymentAttemptResponse> getPaymentAttempt(@PathVariable Long id,
+                                                                       @PathVariable String attemptId,
+                                                                       @RequestParam(defaultValue = "0") long waitSeconds) {
+        PaymentAttempt attempt = paymentAttemptService.getAttempt(id, attemptId);
+        long wait = Math.min(Math.max(waitSeconds, 0), MAX_PAYMENT_WAIT_SECONDS);
+        if (attempt.isDone() || wait == 0) {
+            return CompletableFuture.completedFuture(PaymentAttemptResponse.from(attempt));
+        }
+        return attempt.getCompletion().copy()
+                .completeOnTimeout(attempt, wait, TimeUnit.SECONDS)
+                .thenApply(PaymentAttemptResponse::from);
     }
 
     @PostMapping("/{id}/offline-payment")
-    public Order processOfflinePayment(@PathVariable Long id) {
-        return orderService.processOfflinePayment(id);
+    public ResponseEntity<?> processOfflinePayment(@RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                                   @PathVariable Long id) {
+        String operation = "POST /api/orders/" + id + "/offline-payment";
+        return idempotencyService.execute(idempotencyKey, operation, List.of(), () ->
+                ResponseEntity.ok(OrderResponse.from(orderService.processOfflinePayment(id))));
     }
 
     @PutMapping("/{id}/status")
-    public Order updateOrderStatus(@PathVariable Long id, @RequestParam OrderStatus status) {
-        return orderService.updateOrderStatus(id, status);
+    public OrderResponse updateOrderStatus(@PathVariable Long id, @RequestParam OrderStatus status) {
+        return OrderResponse.from(orderService.updateOrderStatus(id, status));
+    }
+
+    private Order convertToEntity(OrderRequest request) {
+        List<OrderItemRequest> itemRequests = request.getItems() != null ? request.getItems() : List.of();
+        Map<Long, Product> products = productService.getProductsByIds(itemRequests.stream()
+                .map(OrderItemRequest::getProductId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
+
+        return Order.builder()
+                .buyerEmail(request.getBuyerEmail())
+                .seatLetter(request.getSeatLetter())
+                .seatNumber(request.getSeatNumber())
+                .items(itemRequests.stream()
+                        .map(itemRequest -> OrderItem.builder()
+                                .product(products.get(itemRequest.getProductId()))
+                                .quantity(itemRequest.getQuantity())
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
     }
-} 
\ No newline at end of file
+}
@@ -1,12 +1,22 @@
 package com.immfly.controllers;
 
-import com.immfly.models.Product;
-import com.immfly.models.Category;
+import com.immfly.services.CatalogSnapshotService;
+import com.immfly.services.ProductImportService;
+import com.immfly.services.ProductSearchIndex;
 import com.immfly.services.ProductService;
+import com.immfly.services.cache.CatalogSnapshot;
+import com.immfly.services.cache.CatalogVersion;
 import com.immfly.dto.ProductDTO;
+import com.immfly.dto.ProductImportResult;
+import com.immfly.dto.PriceUpdateRequest;
+import com.immfly.dto.PriceUpdateResult;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import java.io.InputStream;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -15,36 +25,84 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ProductController {
     private final ProductService productService;
+    private final CatalogVersion catalogVersion;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductImportService productImportService;
 
+    // Catalog reads answer If-None-Match with 304 from the version counter alone,
+    // before any repository access or serialization.
     @GetMapping
-    public List<ProductDTO> getAllProducts() {
-        return productService.getAllProducts().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public ResponseEntity<byte[]> getAllProducts(WebRequest request,
+                                                 @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = catalogSnapshotService.isGzipEnabled() && acceptsGzip(acceptEncoding);
+        String etag = catalogVersion.etag();
+        String gzipEtag = CatalogSnapshot.gzipEtag(etag);
+        if (gzip ? checkNotModified(request, gzipEtag, etag) : checkNotModified(request, etag, gzipEtag)) {
+            return null;
+        }
+
+        CatalogSnapshot snapshot = catalogSnapshotService.getProducts();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.eTag(snapshot.getGzipEtag())
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(snapshot.getGzip());
+        }
+        return response.eTag(snapshot.getEtag()).body(snapshot.getJson());
+    }
+
+    @GetMapping("/search")
+    public List<ProductDTO> searchProducts(@RequestParam String q,
+                                           @RequestParam(defaultValue = "20") int limit) {
+        return productSearchIndex.search(q, limit);
     }
 
     @GetMapping("/{id}")
-    public ProductDTO getProductById(@PathVariable Long id) {
-        return convertToDTO(productService.getProductById(id));
+    public ProductDTO getProductById(@PathVariable Long id, WebRequest request) {
+        if (request.checkNotModified(catalogVersion.etag())) {
+            return null;
+        }
+        return ProductDTO.from(productService.getProductById(id));
     }
 
     @GetMapping("/category/{categoryId}")
-    public List<ProductDTO> getProductsByCategory(@PathVariable Long categoryId) {
+    public List<ProductDTO> getProductsByCategory(@PathVariable Long categoryId, WebRequest request) {
+        if (request.checkNotModified(catalogVersion.etag())) {
+            return null;
+        }
         return productService.getProductsByCategory(categoryId).stream()
-                .map(this::convertToDTO)
+                .map(ProductDTO::from)
                 .collect(Collectors.toList());
     }
 
     @PostMapping
     public ProductDTO createProduct(@RequestBody ProductDTO productDTO) {
-        Product product = convertToEntity(productDTO);
-        return convertToDTO(productService.createProduct(product));
+        return ProductDTO.from(productService.createProduct(productDTO.toEntity()));
+    }
+
+    // The body is read as a stream, one row at a time, instead of being bound up front.
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public ProductImportResult importNdjson(InputStream body) {
+        return productImportService.importNdjson(body);
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ProductImportResult importCsv(InputStream body) {
+        return productImportService.importCsv(body);
+    }
+
+    @PostMapping("/prices")
+    public PriceUpdateResult updatePrices(@RequestBody PriceUpdateRequest request) {
+        int updated = productService.updatePrices(request.getChanges());
+        return new PriceUpdateResult(updated, catalogVersion.current());
     }
 
     @PutMapping("/{id}")
     public ProductDTO updateProduct(@PathVariable Long id, @RequestBody ProductDTO productDTO) {
-        Product product = convertToEntity(productDTO);
-        return convertToDTO(productService.updateProduct(id, product));
+        return ProductDTO.from(productService.updateProduct(id, productDTO.toEntity()));
     }
 
     @DeleteMapping("/{id}")
@@ -53,33 +111,23 @@ public class ProductController {
         return ResponseEntity.ok().build();
     }
 
-    private ProductDTO convertToDTO(Product product) {
-        ProductDTO dto = new ProductDTO();
-        dto.setId(product.getId());
-        dto.setName(product.getName());
-        dto.setPrice(product.getPrice());
-        dto.setImageUrl(product.getImageUrl());
-        
-        if (product.getCategory() != null) {
-            dto.setCategoryId(product.getCategory().getId());
-        }
-        
-        return dto;
+    // Either coding's tag names the same catalog version; the 304 echoes the one the client holds.
+    private static boolean checkNotModified(WebRequest request, String etag, String otherCodingEtag) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        boolean holdsOther = ifNoneMatch != null && !ifNoneMatch.contains(etag) && ifNoneMatch.contains(otherCodingEtag);
+        return request.checkNotModified(holdsOther ? otherCodingEtag : etag);
     }
 
-    private Product convertToEntity(ProductDTO dto) {
-        Product product = new Product();
-        product.setId(dto.getId());
-        product.setName(dto.getName());
-        product.setPrice(dto.getPrice());
-        product.setImageUrl(dto.getImageUrl());
-        
-        if (dto.getCategoryId() != null) {
-            Category category = new Category();
-            category.setId(dto.getCategoryId());
-            product.setCategory(category);
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].trim().matches("q\\s*=\\s*0(\\.0*)?");
+            }
         }
-        
-        return product;
+        return false;
     }
-} 
\ No newline at end of file
+}
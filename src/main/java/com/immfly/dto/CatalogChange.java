@@ -0,0 +1,17 @@
+package com.immfly.dto;
+
+import lombok.Value;
+
+@Value
+public class CatalogChange {
+    public enum EntityType { PRODUCT, CATEGORY }
+
+    public enum Operation { CREATED, UPDATED, DELETED }
+
+    long version;
+    EntityType type;
+    Long id;
+    Operation operation;
+    // ProductDTO or CategoryDTO with the state after the change; null for DELETED
+    Object data;
+}
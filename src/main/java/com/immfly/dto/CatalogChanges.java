@@ -0,0 +1,15 @@
+package com.immfly.dto;
+
+import lombok.Value;
+import java.util.List;
+
+@Value
+public class CatalogChanges {
+    long epoch;
+    // pass back as since= on the next call
+    long version;
+    boolean hasMore;
+    // the changes are the complete live catalog: drop local entries that are not in them
+    boolean resetRequired;
+    List<CatalogChange> changes;
+}
@@ -0,0 +1,12 @@
+package com.immfly.dto;
+
+import lombok.Value;
+import java.util.List;
+
+@Value
+public class CategoryTreeNode {
+    Long id;
+    String name;
+    String description;
+    List<CategoryTreeNode> children;
+}
@@ -0,0 +1,21 @@
+package com.immfly.dto;
+
+import com.immfly.models.OrderStatus;
+import com.immfly.models.PaymentStatus;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+import java.time.LocalDateTime;
+
+@Data
+public class OrderFilter {
+    private OrderStatus status;
+    private PaymentStatus paymentStatus;
+    private String seatLetter;
+    private Integer seatNumber;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdTo;
+}
@@ -0,0 +1,34 @@
+package com.immfly.dto;
+
+import com.immfly.models.OrderItem;
+import com.immfly.models.Product;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItemResponse {
+    private Long id;
+    private Long productId;
+    private String productName;
+    private BigDecimal productPrice;
+    private BigDecimal unitPrice;
+    private Integer quantity;
+
+    public static OrderItemResponse from(OrderItem item) {
+        Product product = item.getProduct();
+        return OrderItemResponse.builder()
+                .id(item.getId())
+                .productId(product.getId())
+                .productName(product.getName())
+                .productPrice(product.getPrice())
+                .unitPrice(item.getUnitPrice())
+                .quantity(item.getQuantity())
+                .build();
+    }
+}
@@ -0,0 +1,20 @@
+package com.immfly.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPage<T> {
+    private List<T> orders;
+    private String nextCursor;
+
+    public <R> OrderPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new OrderPage<>(orders.stream().map(mapper).collect(Collectors.toList()), nextCursor);
+    }
+}
@@ -0,0 +1,51 @@
+package com.immfly.dto;
+
+import com.immfly.models.Order;
+import com.immfly.models.OrderStatus;
+import com.immfly.models.PaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderResponse {
+    private Long id;
+    private String buyerEmail;
+    private String seatLetter;
+    private Integer seatNumber;
+    private List<OrderItemResponse> items;
+    private BigDecimal totalPrice;
+    private OrderStatus status;
+    private PaymentStatus paymentStatus;
+    private String paymentGateway;
+    private LocalDateTime paymentDate;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public static OrderResponse from(Order order) {
+        return OrderResponse.builder()
+                .id(order.getId())
+                .buyerEmail(order.getBuyerEmail())
+                .seatLetter(order.getSeatLetter())
+                .seatNumber(order.getSeatNumber())
+                .items(order.getItems().stream()
+                        .map(OrderItemResponse::from)
+                        .collect(Collectors.toList()))
+                .totalPrice(order.getTotalPrice())
+                .status(order.getStatus())
+                .paymentStatus(order.getPaymentStatus())
+                .paymentGateway(order.getPaymentGateway())
+                .paymentDate(order.getPaymentDate())
+                .createdAt(order.getCreatedAt())
+                .updatedAt(order.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,33 @@
+package com.immfly.dto;
+
+import com.immfly.services.PaymentAttempt;
+import com.immfly.services.PaymentAttemptStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentAttemptResponse {
+    private String id;
+    private Long orderId;
+    private PaymentAttemptStatus status;
+    private String failureReason;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+
+    public static PaymentAttemptResponse from(PaymentAttempt attempt) {
+        return PaymentAttemptResponse.builder()
+                .id(attempt.getId())
+                .orderId(attempt.getOrderId())
+                .status(attempt.getStatus())
+                .failureReason(attempt.getFailureReason())
+                .createdAt(attempt.getCreatedAt())
+                .completedAt(attempt.getCompletedAt())
+                .build();
+    }
+}
@@ -0,0 +1,26 @@
+package com.immfly.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceUpdateRequest {
+    private List<PriceChange> changes;
+
+    /** Sets every product of a category to {@code price}, or scales it by {@code percentage}. */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PriceChange {
+        private Long categoryId;
+        private BigDecimal price;
+        private BigDecimal percentage;
+    }
+}
@@ -0,0 +1,13 @@
+package com.immfly.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceUpdateResult {
+    private int updated;
+    private long catalogVersion;
+}
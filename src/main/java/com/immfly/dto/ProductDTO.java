@@ -1,5 +1,7 @@
 package com.immfly.dto;
 
+import com.immfly.models.Category;
+import com.immfly.models.Product;
 import lombok.Data;
 import lombok.Builder;
 import lombok.NoArgsConstructor;
@@ -16,4 +18,25 @@ public class ProductDTO {
     private BigDecimal price;
     private Long categoryId;
     private String imageUrl;
+
+    // The one Product mapping shared by the REST, search and delta sync responses.
+    public static ProductDTO from(Product product) {
+        return ProductDTO.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .price(product.getPrice())
+                .imageUrl(product.getImageUrl())
+                .categoryId(product.getCategory() != null ? product.getCategory().getId() : null)
+                .build();
+    }
+
+    public Product toEntity() {
+        return Product.builder()
+                .id(id)
+                .name(name)
+                .price(price)
+                .imageUrl(imageUrl)
+                .category(categoryId != null ? Category.builder().id(categoryId).build() : null)
+                .build();
+    }
 } 
\ No newline at end of file
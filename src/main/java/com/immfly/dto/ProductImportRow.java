@@ -0,0 +1,19 @@
+package com.immfly.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportRow {
+    private String name;
+    private BigDecimal price;
+    private Long categoryId;
+    private String category;
+    private String imageUrl;
+}
@@ -8,9 +8,11 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 
+// The listing indexes on (status | payment_status | seat, created_at, id) live in the Flyway migrations.
 @Entity
 @Table(name = "orders")
 @Data
@@ -19,7 +21,8 @@ import java.util.List;
 @AllArgsConstructor
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "buyer_email", nullable = false)
@@ -31,7 +34,7 @@ public class Order {
     @Column(name = "seat_number", nullable = false)
     private Integer seatNumber;
     
-    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonManagedReference
     @Builder.Default
     private List<OrderItem> items = new ArrayList<>();
@@ -56,15 +59,23 @@ public class Order {
     @Column(name = "payment_date")
     private LocalDateTime paymentDate;
     
+    @Column(name = "payment_started_at")
+    private LocalDateTime paymentStartedAt;
+    
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+    
     @PrePersist
     protected void onCreate() {
-        createdAt = LocalDateTime.now();
+        // keyset cursors compare createdAt, so keep it at the precision the column stores
+        createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
         status = OrderStatus.OPEN;
         paymentStatus = PaymentStatus.PAYMENT_FAILED;
     }
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import java.math.BigDecimal;
 
 @Entity
 @Table(name = "order_items")
@@ -15,7 +16,8 @@ import lombok.Builder;
 @AllArgsConstructor
 public class OrderItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -29,4 +31,19 @@ public class OrderItem {
     
     @Column(nullable = false)
     private Integer quantity;
+    
+    // Catalog price in minor units when the line was added; totals and receipts never re-read the product.
+    @Column(name = "unit_price_minor", nullable = false)
+    private Long unitPriceMinor;
+    
+    @PrePersist
+    public void snapshotUnitPrice() {
+        if (unitPriceMinor == null && product != null && product.getPrice() != null) {
+            unitPriceMinor = Money.toMinorUnits(product.getPrice());
+        }
+    }
+    
+    public BigDecimal getUnitPrice() {
+        return unitPriceMinor != null ? Money.fromMinorUnits(unitPriceMinor) : null;
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,65 @@
+package com.immfly.models;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Allowed transitions of {@link OrderStatus} and {@link PaymentStatus}. The
+ * repository applies them as conditional updates whose WHERE clause lists the
+ * source states, so concurrent requests race on a single row update instead of
+ * a read-check-write.
+ */
+public final class OrderStateMachine {
+    public static final Set<OrderStatus> PAYABLE = Collections.unmodifiableSet(EnumSet.of(OrderStatus.OPEN));
+
+    private static final Map<OrderStatus, Set<OrderStatus>> STATUS_TRANSITIONS = new EnumMap<>(OrderStatus.class);
+    private static final Map<PaymentStatus, Set<PaymentStatus>> PAYMENT_TRANSITIONS = new EnumMap<>(PaymentStatus.class);
+
+    static {
+        STATUS_TRANSITIONS.put(OrderStatus.OPEN, EnumSet.of(OrderStatus.DROPPED, OrderStatus.CANCELLED, OrderStatus.FINISHED));
+        STATUS_TRANSITIONS.put(OrderStatus.DROPPED, EnumSet.of(OrderStatus.OPEN, OrderStatus.CANCELLED));
+        STATUS_TRANSITIONS.put(OrderStatus.FINISHED, EnumSet.noneOf(OrderStatus.class));
+        STATUS_TRANSITIONS.put(OrderStatus.CANCELLED, EnumSet.noneOf(OrderStatus.class));
+
+        // PAYMENT_FAILED -> PAID covers a gateway success that arrives after the attempt was swept as stale
+        PAYMENT_TRANSITIONS.put(PaymentStatus.PAYMENT_FAILED,
+                EnumSet.of(PaymentStatus.PENDING, PaymentStatus.OFFLINE_PAYMENT, PaymentStatus.PAID));
+        PAYMENT_TRANSITIONS.put(PaymentStatus.PENDING, EnumSet.of(PaymentStatus.PAID, PaymentStatus.PAYMENT_FAILED));
+        PAYMENT_TRANSITIONS.put(PaymentStatus.PAID, EnumSet.noneOf(PaymentStatus.class));
+        PAYMENT_TRANSITIONS.put(PaymentStatus.OFFLINE_PAYMENT, EnumSet.noneOf(PaymentStatus.class));
+    }
+
+    private OrderStateMachine() {
+    }
+
+    public static boolean canTransition(OrderStatus from, OrderStatus to) {
+        return from != null && STATUS_TRANSITIONS.get(from).contains(to);
+    }
+
+    public static boolean canTransition(PaymentStatus from, PaymentStatus to) {
+        return from != null && PAYMENT_TRANSITIONS.get(from).contains(to);
+    }
+
+    public static Set<OrderStatus> sourcesOf(OrderStatus to) {
+        Set<OrderStatus> sources = EnumSet.noneOf(OrderStatus.class);
+        STATUS_TRANSITIONS.forEach((from, targets) -> {
+            if (targets.contains(to)) {
+                sources.add(from);
+            }
+        });
+        return sources;
+    }
+
+    public static Set<PaymentStatus> sourcesOf(PaymentStatus to) {
+        Set<PaymentStatus> sources = EnumSet.noneOf(PaymentStatus.class);
+        PAYMENT_TRANSITIONS.forEach((from, targets) -> {
+            if (targets.contains(to)) {
+                sources.add(from);
+            }
+        });
+        return sources;
+    }
+}
@@ -1,6 +1,7 @@
 package com.immfly.models;
 
 public enum PaymentStatus {
+    PENDING,
     PAID,
     PAYMENT_FAILED,
     OFFLINE_PAYMENT
@@ -2,24 +2,39 @@ package com.immfly.models;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
+import java.util.Locale;
 
 @Entity
-@Table(name = "product")
+@Table(name = "product", uniqueConstraints =
+        @UniqueConstraint(name = Product.NORMALIZED_NAME_CONSTRAINT, columnNames = "normalized_name"))
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Product.CACHE_REGION)
 public class Product {
+    public static final String NORMALIZED_NAME_CONSTRAINT = "uk_product_normalized_name";
+    public static final String CACHE_REGION = "product";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
     private String name;
+
+    // Lets the database enforce case-insensitive uniqueness through a plain unique index.
+    @Column(name = "normalized_name", nullable = false)
+    @JsonIgnore
+    private String normalizedName;
     
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal price;
@@ -31,4 +46,14 @@ public class Product {
     @JoinColumn(name = "category_id")
     @JsonBackReference
     private Category category;
-} 
\ No newline at end of file
+
+    @PrePersist
+    @PreUpdate
+    public void normalizeName() {
+        normalizedName = normalizeName(name);
+    }
+
+    public static String normalizeName(String name) {
+        return name == null ? null : name.trim().toLowerCase(Locale.ROOT);
+    }
+}
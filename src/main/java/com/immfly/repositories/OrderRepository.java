@@ -1,7 +1,86 @@
 package com.immfly.repositories;
 
 import com.immfly.models.Order;
+import com.immfly.models.OrderStatus;
+import com.immfly.models.PaymentStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
-public interface OrderRepository extends JpaRepository<Order, Long> {
-} 
\ No newline at end of file
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
+
+    @Query("select o from Order o left join fetch o.items i left join fetch i.product where o.id = :id")
+    Optional<Order> findWithItemsById(@Param("id") Long id);
+
+    @Query("select o from Order o left join fetch o.items i left join fetch i.product where o.id in :ids")
+    List<Order> findWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select o.status as status, count(o) as count from Order o group by o.status")
+    List<StatusCount> countByStatus();
+
+    // Every conditional update below bumps the version, so a concurrent load-modify-save of
+    // the same order fails its optimistic lock check instead of overwriting the transition.
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Order o set o.status = :status, o.updatedAt = :now, o.version = o.version + 1 "
+            + "where o.id = :id and o.status in :from and o.paymentStatus <> com.immfly.models.PaymentStatus.PENDING")
+    int transitionStatus(@Param("id") Long id, @Param("status") OrderStatus status,
+                         @Param("from") Collection<OrderStatus> from, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Order o set o.paymentStatus = com.immfly.models.PaymentStatus.PENDING, "
+            + "o.paymentStartedAt = :now, o.updatedAt = :now, o.version = o.version + 1 "
+            + "where o.id = :id and o.version = :version and o.paymentStatus in :from and o.status in :payable")
+    int markPaymentPending(@Param("id") Long id, @Param("version") Long version, @Param("from") Collection<PaymentStatus> from,
+                           @Param("payable") Collection<OrderStatus> payable, @Param("now") LocalDateTime now);
+
+    // The outcome of an attempt is matched by its paymentStartedAt, so a late result of an attempt
+    // the sweeper already released cannot finish or fail a newer attempt.
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Order o set o.paymentStatus = com.immfly.models.PaymentStatus.PAID, "
+            + "o.status = com.immfly.models.OrderStatus.FINISHED, o.paymentGateway = :gateway, o.cardToken = :cardToken, "
+            + "o.paymentDate = :now, o.updatedAt = :now, o.version = o.version + 1 "
+            + "where o.id = :id and o.paymentStartedAt = :startedAt and o.paymentStatus in :from")
+    int completePayment(@Param("id") Long id, @Param("startedAt") LocalDateTime startedAt,
+                        @Param("gateway") String gateway, @Param("cardToken") String cardToken,
+                        @Param("from") Collection<PaymentStatus> from, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Order o set o.paymentStatus = com.immfly.models.PaymentStatus.PAYMENT_FAILED, "
+            + "o.updatedAt = :now, o.version = o.version + 1 "
+            + "where o.id = :id and o.paymentStartedAt = :startedAt and o.paymentStatus in :from")
+    int failPayment(@Param("id") Long id, @Param("startedAt") LocalDateTime startedAt,
+                    @Param("from") Collection<PaymentStatus> from, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Order o set o.paymentStatus = com.immfly.models.PaymentStatus.OFFLINE_PAYMENT, "
+            + "o.status = com.immfly.models.OrderStatus.FINISHED, o.paymentGateway = :gateway, "
+            + "o.paymentDate = :now, o.updatedAt = :now, o.version = o.version + 1 "
+            + "where o.id = :id and o.paymentStatus in :from and o.status in :payable")
+    int recordOfflinePayment(@Param("id") Long id, @Param("gateway") String gateway,
+                             @Param("from") Collection<PaymentStatus> from,
+                             @Param("payable") Collection<OrderStatus> payable, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Order o set o.paymentStatus = com.immfly.models.PaymentStatus.PAYMENT_FAILED, "
+            + "o.updatedAt = :now, o.version = o.version + 1 "
+            + "where o.paymentStatus = com.immfly.models.PaymentStatus.PENDING and o.paymentStartedAt < :startedBefore")
+    int failStalePayments(@Param("startedBefore") LocalDateTime startedBefore, @Param("now") LocalDateTime now);
+
+    interface StatusCount {
+        OrderStatus getStatus();
+        long getCount();
+    }
+}
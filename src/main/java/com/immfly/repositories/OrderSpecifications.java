@@ -0,0 +1,51 @@
+package com.immfly.repositories;
+
+import com.immfly.dto.OrderCursor;
+import com.immfly.dto.OrderFilter;
+import com.immfly.models.Order;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class OrderSpecifications {
+    public static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    private OrderSpecifications() {
+    }
+
+    public static Specification<Order> matching(OrderFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.getStatus() != null) {
+                predicates.add(cb.equal(root.get("status"), filter.getStatus()));
+            }
+            if (filter.getPaymentStatus() != null) {
+                predicates.add(cb.equal(root.get("paymentStatus"), filter.getPaymentStatus()));
+            }
+            if (filter.getSeatLetter() != null) {
+                predicates.add(cb.equal(root.get("seatLetter"), filter.getSeatLetter()));
+            }
+            if (filter.getSeatNumber() != null) {
+                predicates.add(cb.equal(root.get("seatNumber"), filter.getSeatNumber()));
+            }
+            if (filter.getCreatedFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), filter.getCreatedFrom()));
+            }
+            if (filter.getCreatedTo() != null) {
+                predicates.add(cb.lessThan(root.get("createdAt"), filter.getCreatedTo()));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    // Keyset predicate matching NEWEST_FIRST: rows strictly after the cursor.
+    public static Specification<Order> after(OrderCursor cursor) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("createdAt"), cursor.getCreatedAt()),
+                cb.and(
+                        cb.equal(root.get("createdAt"), cursor.getCreatedAt()),
+                        cb.lessThan(root.get("id"), cursor.getId())));
+    }
+}
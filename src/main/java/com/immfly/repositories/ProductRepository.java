@@ -1,10 +1,44 @@
 package com.immfly.repositories;
 
 import com.immfly.models.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
+    String BY_CATEGORY_CACHE_REGION = "products-by-category";
+
+    // Caches the matching ids; the products themselves come from the entity region.
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = BY_CATEGORY_CACHE_REGION)
+    })
     List<Product> findByCategoryId(Long categoryId);
-    List<Product> findByNameIgnoreCase(String name);
-} 
\ No newline at end of file
+    List<Product> findByCategoryIdIn(Collection<Long> categoryIds);
+
+    @Query("select p.id as id, p.normalizedName as normalizedName from Product p")
+    List<ProductName> findAllNames();
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Product p set p.price = :price where p.category.id = :categoryId")
+    int setPriceByCategory(@Param("categoryId") Long categoryId, @Param("price") BigDecimal price);
+
+    // The factor is cast explicitly; otherwise it is bound with the price column's scale and
+    // rounded to two decimals before the multiplication (1.075 would become 1.08).
+    @Modifying(clearAutomatically = true)
+    @Query("update Product p set p.price = round(p.price * cast(:factor as BigDecimal(19, 6)), 2)"
+            + " where p.category.id = :categoryId")
+    int scalePriceByCategory(@Param("categoryId") Long categoryId, @Param("factor") BigDecimal factor);
+
+    interface ProductName {
+        Long getId();
+        String getNormalizedName();
+    }
+}
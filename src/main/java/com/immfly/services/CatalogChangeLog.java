@@ -0,0 +1,170 @@
+package com.immfly.services;
+
+import com.immfly.dto.CatalogChange;
+import com.immfly.dto.CatalogChange.EntityType;
+import com.immfly.dto.CatalogChange.Operation;
+import com.immfly.dto.CatalogChanges;
+import com.immfly.dto.CategoryDTO;
+import com.immfly.dto.ProductDTO;
+import com.immfly.exceptions.BadRequestException;
+import com.immfly.models.Category;
+import com.immfly.models.Product;
+import com.immfly.repositories.CategoryRepository;
+import com.immfly.repositories.ProductRepository;
+import com.immfly.services.cache.TransactionCallbacks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * In-memory log of product and category changes for clients that mirror the catalog.
+ * <p>
+ * Changes are appended after their transaction commits, under the log's lock, so
+ * versions increase in commit order and a client never skips a change that commits
+ * late. The log keeps only the latest change per entity, which bounds it by the
+ * catalog size; tombstones are dropped after a retention period, and a client whose
+ * {@code since} predates a dropped tombstone is sent the whole live catalog instead.
+ */
+@Slf4j
+@Service
+public class CatalogChangeLog {
+    public static final int MAX_LIMIT = 5_000;
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final Duration tombstoneRetention;
+    private final long epoch = System.currentTimeMillis();
+    private final TreeMap<Long, Entry> changes = new TreeMap<>();
+    private final Map<Key, Long> latest = new HashMap<>();
+    private long version;
+    private long compactedThrough;
+
+    public CatalogChangeLog(ProductRepository productRepository,
+                            CategoryRepository categoryRepository,
+                            @Value("${catalog.changes.tombstone-retention:PT24H}") Duration tombstoneRetention) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.tombstoneRetention = tombstoneRetention;
+    }
+
+    // Entities that exist before the first mutation would otherwise never reach a since=0 client.
+    @EventListener(ApplicationReadyEvent.class)
+    public void recordExistingCatalog() {
+        categoryRepository.findAll().forEach(category ->
+                append(EntityType.CATEGORY, category.getId(), Operation.CREATED, toDTO(category), false));
+        productRepository.findAll().forEach(product ->
+                append(EntityType.PRODUCT, product.getId(), Operation.CREATED, ProductDTO.from(product), false));
+    }
+
+    public void productChanged(Product product, Operation operation) {
+        record(EntityType.PRODUCT, product.getId(), operation, ProductDTO.from(product));
+    }
+
+    public void productDeleted(Long id) {
+        record(EntityType.PRODUCT, id, Operation.DELETED, null);
+    }
+
+    public void categoryChanged(Category category, Operation operation) {
+        record(EntityType.CATEGORY, category.getId(), operation, toDTO(category));
+    }
+
+    public void categoryDeleted(Long id) {
+        record(EntityType.CATEGORY, id, Operation.DELETED, null);
+    }
+
+    /**
+     * Returns the changes after {@code since}. A client paging through a reset passes
+     * {@code resetting} on the follow-up calls: their {@code since} is the last entry of
+     * the previous page, which is usually older than the purged tombstones and would
+     * otherwise restart the reset.
+     */
+    public synchronized CatalogChanges getChanges(long since, Long clientEpoch, boolean resetting, int limit) {
+        if (since < 0) {
+            throw new BadRequestException("since must not be negative");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_LIMIT);
+        }
+
+        boolean restart = (clientEpoch != null && clientEpoch != epoch) || since > version
+                || (!resetting && since < compactedThrough);
+        List<CatalogChange> page = new ArrayList<>();
+        boolean hasMore = false;
+        for (Entry entry : changes.tailMap(restart ? 0 : since, false).values()) {
+            if (restart && entry.change.getOperation() == Operation.DELETED) {
+                continue;
+            }
+            if (page.size() == limit) {
+                hasMore = true;
+                break;
+            }
+            page.add(entry.change);
+        }
+        long next = hasMore ? page.get(page.size() - 1).getVersion() : version;
+        return new CatalogChanges(epoch, next, hasMore, restart || resetting, page);
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.changes.compaction-interval:PT10M}")
+    public synchronized int purgeTombstones() {
+        Instant cutoff = Instant.now().minus(tombstoneRetention);
+        int purged = 0;
+        for (Iterator<Entry> it = changes.values().iterator(); it.hasNext(); ) {
+            Entry entry = it.next();
+            CatalogChange change = entry.change;
+            if (change.getOperation() == Operation.DELETED && entry.recordedAt.isBefore(cutoff)) {
+                it.remove();
+                latest.remove(new Key(change.getType(), change.getId()));
+                compactedThrough = Math.max(compactedThrough, change.getVersion());
+                purged++;
+            }
+        }
+        if (purged > 0) {
+            log.debug("Purged {} catalog tombstones, clients behind version {} must resync", purged, compactedThrough);
+        }
+        return purged;
+    }
+
+    private void record(EntityType type, Long id, Operation operation, Object data) {
+        TransactionCallbacks.afterCommit(() -> append(type, id, operation, data, true));
+    }
+
+    private synchronized void append(EntityType type, Long id, Operation operation, Object data, boolean replace) {
+        Key key = new Key(type, id);
+        Long previous = latest.get(key);
+        if (previous != null) {
+            if (!replace) {
+                return;
+            }
+            changes.remove(previous);
+        }
+        long next = ++version;
+        changes.put(next, new Entry(new CatalogChange(next, type, id, operation, data), Instant.now()));
+        latest.put(key, next);
+    }
+
+    private static CategoryDTO toDTO(Category category) {
+        return CategoryDTO.builder()
+                .id(category.getId())
+                .name(category.getName())
+                .description(category.getDescription())
+                .parentId(category.getParent() != null ? category.getParent().getId() : null)
+                .build();
+    }
+
+    private record Key(EntityType type, Long id) {
+    }
+
+    private record Entry(CatalogChange change, Instant recordedAt) {
+    }
+}
@@ -0,0 +1,81 @@
+package com.immfly.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.immfly.dto.ProductDTO;
+import com.immfly.services.cache.CatalogSnapshot;
+import com.immfly.services.cache.CatalogVersion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the full product list serialized, and optionally gzipped, for the current
+ * catalog version. Requests between two catalog changes reuse the same bytes, so
+ * the product list is mapped and serialized once per version instead of per request.
+ */
+@Service
+public class CatalogSnapshotService {
+    private final ProductService productService;
+    private final CatalogVersion catalogVersion;
+    private final ObjectMapper objectMapper;
+    private final boolean gzipEnabled;
+    private final AtomicReference<CatalogSnapshot> products = new AtomicReference<>();
+
+    public CatalogSnapshotService(ProductService productService,
+                                  CatalogVersion catalogVersion,
+                                  ObjectMapper objectMapper,
+                                  @Value("${catalog.snapshot.gzip:true}") boolean gzipEnabled) {
+        this.productService = productService;
+        this.catalogVersion = catalogVersion;
+        this.objectMapper = objectMapper;
+        this.gzipEnabled = gzipEnabled;
+    }
+
+    public boolean isGzipEnabled() {
+        return gzipEnabled;
+    }
+
+    public CatalogSnapshot getProducts() {
+        // read before loading: data newer than the version only causes one extra rebuild
+        long version = catalogVersion.current();
+        String etag = catalogVersion.etag();
+        CatalogSnapshot current = products.get();
+        if (current != null && current.getVersion() == version) {
+            return current;
+        }
+
+        List<ProductDTO> body = productService.getAllProducts().stream()
+                .map(ProductDTO::from)
+                .collect(Collectors.toList());
+        byte[] json = serialize(body);
+        CatalogSnapshot built = new CatalogSnapshot(version, etag, json, gzipEnabled ? gzip(json) : null);
+        products.accumulateAndGet(built, (existing, candidate) ->
+                existing != null && existing.getVersion() > candidate.getVersion() ? existing : candidate);
+        return built;
+    }
+
+    private byte[] serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize catalog snapshot", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, json.length / 4));
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+}
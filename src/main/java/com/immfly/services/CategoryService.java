@@ -1,44 +1,110 @@
 package com.immfly.services;
 
+import com.immfly.dto.CatalogChange.Operation;
 import com.immfly.models.Category;
 import com.immfly.repositories.CategoryRepository;
 import com.immfly.exceptions.ResourceNotFoundException;
+import com.immfly.services.cache.CacheStats;
+import com.immfly.services.cache.CatalogCache;
+import com.immfly.services.cache.CatalogVersion;
+import com.immfly.services.cache.CategoryTree;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class CategoryService {
+    private static final int MAX_CACHED_CATEGORIES = 1_000;
+
     private final CategoryRepository categoryRepository;
+    private final CatalogVersion catalogVersion;
+    private final CatalogChangeLog catalogChangeLog;
+    private final ProductSearchIndex productSearchIndex;
+    private final CatalogCache<Long, Category> categoryCache = new CatalogCache<>(MAX_CACHED_CATEGORIES);
+    private final CatalogCache<String, List<Category>> categoryListCache = new CatalogCache<>(1);
+    private final CatalogCache<String, CategoryTree> categoryTreeCache = new CatalogCache<>(1);
 
     @Transactional(readOnly = true)
     public List<Category> getAllCategories() {
-        return categoryRepository.findAll();
+        return categoryListCache.get("all", key -> {
+            List<Category> categories = categoryRepository.findAll();
+            categories.forEach(this::initializeSubcategories);
+            return List.copyOf(categories);
+        });
     }
 
     @Transactional(readOnly = true)
     public Category getCategoryById(Long id) {
-        return categoryRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
+        Category category = categoryCache.get(id, key -> categoryRepository.findById(key)
+                .map(this::initializeSubcategories)
+                .orElse(null));
+        if (category == null) {
+            throw new ResourceNotFoundException("Category not found with id: " + id);
+        }
+        return category;
+    }
+
+    public CategoryTree getCategoryTree() {
+        return categoryTreeCache.get("tree", key -> CategoryTree.of(categoryRepository.findAll()));
     }
 
     @Transactional
     public Category createCategory(Category category) {
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        evictCaches();
+        catalogChangeLog.categoryChanged(saved, Operation.CREATED);
+        productSearchIndex.categoryChanged(saved);
+        return saved;
     }
 
     @Transactional
     public Category updateCategory(Long id, Category categoryDetails) {
-        Category category = getCategoryById(id);
+        Category category = findCategory(id);
         category.setName(categoryDetails.getName());
-        return categoryRepository.save(category);
+        Category saved = initializeSubcategories(categoryRepository.save(category));
+        evictCaches();
+        catalogChangeLog.categoryChanged(saved, Operation.UPDATED);
+        productSearchIndex.categoryChanged(saved);
+        return saved;
     }
 
     @Transactional
     public void deleteCategory(Long id) {
-        Category category = getCategoryById(id);
+        Category category = findCategory(id);
         categoryRepository.delete(category);
+        evictCaches();
+        catalogChangeLog.categoryDeleted(id);
+        productSearchIndex.categoryDeleted(id);
+    }
+
+    public Map<String, CacheStats> getCacheStats() {
+        return Map.of(
+                "categories", categoryCache.getStats(),
+                "category-lists", categoryListCache.getStats(),
+                "category-tree", categoryTreeCache.getStats());
+    }
+
+    // A category appears in its parent's subcategories, so a single change
+    // invalidates cached ancestors as well; categories are few enough to drop them all.
+    public void evictCaches() {
+        categoryCache.evictAll();
+        categoryListCache.evictAll();
+        categoryTreeCache.evictAll();
+        catalogVersion.bump();
+    }
+
+    private Category findCategory(Long id) {
+        return categoryRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
+    }
+
+    // Categories are rendered after the session that loaded them has closed,
+    // so the nested subcategories must be loaded up front.
+    private Category initializeSubcategories(Category category) {
+        category.getSubcategories().forEach(this::initializeSubcategories);
+        return category;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,50 @@
+package com.immfly.services;
+
+import com.immfly.models.Money;
+import com.immfly.models.Order;
+import com.immfly.models.OrderItem;
+import java.util.List;
+
+/**
+ * Checks and prices the lines of an order for {@link OrderService}. It is
+ * stateless and never touches the database, so it can be benchmarked on its own.
+ */
+public final class OrderCalculator {
+
+    private OrderCalculator() {
+    }
+
+    public static void validateItems(Order order) {
+        if (order.getItems() == null || order.getItems().isEmpty()) {
+            throw new IllegalArgumentException("Order must have at least one item");
+        }
+
+        for (OrderItem item : order.getItems()) {
+            if (item.getProduct() == null || item.getProduct().getId() == null) {
+                throw new IllegalArgumentException("Order item must have a valid product");
+            }
+            if (item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Order item quantity must be greater than 0");
+            }
+        }
+    }
+
+    // Lines keep the price they were added at; only new lines read the catalog price.
+    public static void snapshotUnitPrices(Order order) {
+        order.getItems().forEach(OrderItem::snapshotUnitPrice);
+    }
+
+    public static void calculateTotalPrice(Order order) {
+        order.setTotalPrice(Money.fromMinorUnits(totalMinorUnits(order.getItems())));
+    }
+
+    // Sums the unit price snapshots in cents: no product access and no allocation per line.
+    public static long totalMinorUnits(List<OrderItem> items) {
+        long total = 0;
+        for (int i = 0; i < items.size(); i++) {
+            OrderItem item = items.get(i);
+            total = Math.addExact(total, Math.multiplyExact(item.getUnitPriceMinor().longValue(), item.getQuantity().longValue()));
+        }
+        return total;
+    }
+}
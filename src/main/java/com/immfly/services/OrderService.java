@@ -1,81 +1,160 @@
 package com.immfly.services;
 
+import com.immfly.dto.OrderCursor;
+import com.immfly.dto.OrderFilter;
+import com.immfly.dto.OrderPage;
 import com.immfly.models.*;
 import com.immfly.repositories.OrderRepository;
-import com.immfly.repositories.ProductRepository;
+import com.immfly.repositories.OrderSpecifications;
+import com.immfly.exceptions.BadRequestException;
+import com.immfly.exceptions.ConflictException;
 import com.immfly.exceptions.ResourceNotFoundException;
 import com.immfly.exceptions.PaymentProcessingException;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.HashSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class OrderService {
+    public static final int MAX_PAGE_SIZE = 200;
+
     private final OrderRepository orderRepository;
-    private final ProductRepository productRepository;
     private final PaymentService paymentService;
 
     @Transactional(readOnly = true)
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    public OrderPage<Order> getOrders(OrderFilter filter, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        Specification<Order> specification = OrderSpecifications.matching(filter);
+        if (cursor != null) {
+            specification = specification.and(OrderSpecifications.after(OrderCursor.decode(cursor)));
+        }
+
+        // one extra row tells whether another page follows without a count query
+        List<Order> orders = orderRepository.findBy(specification, query -> query
+                .sortBy(OrderSpecifications.NEWEST_FIRST)
+                .limit(limit + 1)
+                .all());
+        String nextCursor = null;
+        if (orders.size() > limit) {
+            orders = orders.subList(0, limit);
+            nextCursor = OrderCursor.of(orders.get(limit - 1)).encode();
+        }
+        return new OrderPage<>(fetchItems(orders), nextCursor);
     }
 
     @Transactional(readOnly = true)
     public Order getOrderById(Long id) {
-        return orderRepository.findById(id)
+        return orderRepository.findWithItemsById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
     }
 
+    @Timed("orders.create")
     @Transactional
     public Order createOrder(Order order) {
         order.setStatus(OrderStatus.OPEN);
         order.setPaymentStatus(PaymentStatus.PAYMENT_FAILED);
-        validateOrderItems(order);
-        calculateTotalPrice(order);
+        OrderCalculator.validateItems(order);
+        OrderCalculator.snapshotUnitPrices(order);
+        OrderCalculator.calculateTotalPrice(order);
         return orderRepository.save(order);
     }
 
     @Transactional
     public Order updateOrder(Long id, Order orderDetails) {
         Order existingOrder = getOrderById(id);
+        rejectUnlessEditable(existingOrder);
         
         existingOrder.setBuyerEmail(orderDetails.getBuyerEmail());
         existingOrder.setSeatLetter(orderDetails.getSeatLetter());
         existingOrder.setSeatNumber(orderDetails.getSeatNumber());
         
-        existingOrder.getItems().clear();
+        Map<Long, OrderItem> existingItems = existingOrder.getItems().stream()
+                .collect(Collectors.toMap(item -> item.getProduct().getId(), Function.identity()));
+        Set<Long> productIds = new HashSet<>();
+        List<OrderItem> addedItems = new ArrayList<>();
         
         if (orderDetails.getItems() != null) {
-            Set<Long> productIds = new HashSet<>();
-            
             for (OrderItem item : orderDetails.getItems()) {
-                Product product = productRepository.findById(item.getProduct().getId())
-                    .orElseThrow(() -> new IllegalArgumentException("Product not found with id: " + item.getProduct().getId()));
+                Product product = item.getProduct();
                 
-                if (!productIds.add(product.getId())) {
+                if (product != null && !productIds.add(product.getId())) {
                     throw new IllegalArgumentException("Duplicate product in order: " + product.getName());
                 }
                 
-                OrderItem newItem = OrderItem.builder()
-                    .order(existingOrder)
-                    .product(product)
-                    .quantity(item.getQuantity())
-                    .build();
-                
-                existingOrder.getItems().add(newItem);
+                // lines are matched by product so an unchanged basket issues no item statements at all
+                OrderItem existingItem = product != null ? existingItems.get(product.getId()) : null;
+                if (existingItem != null) {
+                    existingItem.setQuantity(item.getQuantity());
+                } else {
+                    addedItems.add(OrderItem.builder()
+                        .order(existingOrder)
+                        .product(product)
+                        .quantity(item.getQuantity())
+                        .build());
+                }
             }
         }
         
-        validateOrderItems(existingOrder);
-        calculateTotalPrice(existingOrder);
+        existingOrder.getItems().removeIf(item -> !productIds.contains(item.getProduct().getId()));
+        existingOrder.getItems().addAll(addedItems);
+        
+        OrderCalculator.validateItems(existingOrder);
+        OrderCalculator.snapshotUnitPrices(existingOrder);
+        OrderCalculator.calculateTotalPrice(existingOrder);
+        
+        // existingOrder is managed, so new items are persisted by cascade; merging it through
+        // save() would swap them for copies that reference uninitialized product proxies
+        flushOrConflict(id);
+        return existingOrder;
+    }
+
+    @Transactional
+    public Order updateOrderItem(Long id, Product product, int quantity) {
+        Order existingOrder = getOrderById(id);
+        rejectUnlessEditable(existingOrder);
+        
+        OrderItem existingItem = existingOrder.getItems().stream()
+                .filter(item -> item.getProduct().getId().equals(product.getId()))
+                .findFirst()
+                .orElse(null);
+        if (quantity == 0) {
+            if (existingItem == null) {
+                throw new ResourceNotFoundException("Order " + id + " has no item for product: " + product.getId());
+            }
+            existingOrder.getItems().removeIf(item -> item == existingItem);
+        } else if (existingItem != null) {
+            existingItem.setQuantity(quantity);
+        } else {
+            existingOrder.getItems().add(OrderItem.builder()
+                .order(existingOrder)
+                .product(product)
+                .quantity(quantity)
+                .build());
+        }
         
-        return orderRepository.save(existingOrder);
+        OrderCalculator.validateItems(existingOrder);
+        OrderCalculator.snapshotUnitPrices(existingOrder);
+        OrderCalculator.calculateTotalPrice(existingOrder);
+        flushOrConflict(id);
+        return existingOrder;
     }
 
     @Transactional
@@ -83,72 +162,157 @@ public class OrderService {
         orderRepository.deleteById(id);
     }
 
-    @Transactional
+    /**
+     * Charges the order in three steps so that no connection or row lock is held
+     * during the gateway round trip: {@link #startPayment} claims the order as
+     * PENDING with a conditional update, and {@link #chargePendingPayment} calls
+     * the gateway outside any transaction before recording the outcome with a
+     * second conditional update. The claim only matches the version that was
+     * read, so an item change committed in between cannot leave the gateway
+     * charging a stale total. Attempts left PENDING by a crash are released
+     * by {@link PendingPaymentSweeper}; the outcome of an attempt is recorded
+     * against its {@code paymentStartedAt}, so a released attempt that answers
+     * late cannot overwrite a newer one.
+     */
+    @Timed("orders.payment.online")
     public Order processPayment(Long id, String cardToken) {
+        return chargePendingPayment(startPayment(id), cardToken);
+    }
+
+    public Order startPayment(Long id) {
         Order order = getOrderById(id);
         
-        if (order.getPaymentStatus() == PaymentStatus.PAID) {
-            throw new PaymentProcessingException("Order is already paid");
+        rejectUnlessPayable(order, PaymentStatus.PENDING);
+        // the column keeps microseconds, and the outcome is matched on this exact value
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        if (orderRepository.markPaymentPending(id, order.getVersion(), OrderStateMachine.sourcesOf(PaymentStatus.PENDING),
+                OrderStateMachine.PAYABLE, now) == 0) {
+            // a competing payment or cancellation keeps its own error; anything else changed the order under us
+            rejectUnlessPayable(getOrderById(id), PaymentStatus.PENDING);
+            throw new ConflictException("Order " + id + " was modified concurrently, reload and retry");
         }
-        
+        order.setPaymentStatus(PaymentStatus.PENDING);
+        order.setPaymentStartedAt(now);
+        return order;
+    }
+
+    public Order chargePendingPayment(Order order, String cardToken) {
         try {
             paymentService.processPayment(order.getTotalPrice(), cardToken);
-            order.setPaymentStatus(PaymentStatus.PAID);
-            order.setStatus(OrderStatus.FINISHED);
-            order.setPaymentDate(LocalDateTime.now());
-            order.setPaymentGateway("ONLINE_PAYMENT");
-            order.setCardToken(cardToken);
-            return orderRepository.save(order);
         } catch (Exception e) {
-            order.setPaymentStatus(PaymentStatus.PAYMENT_FAILED);
-            orderRepository.save(order);
+            abandonPayment(order);
             throw new PaymentProcessingException("Payment processing failed: " + e.getMessage());
         }
+        
+        LocalDateTime paymentDate = LocalDateTime.now();
+        if (orderRepository.completePayment(order.getId(), order.getPaymentStartedAt(), "ONLINE_PAYMENT", cardToken,
+                OrderStateMachine.sourcesOf(PaymentStatus.PAID), paymentDate) == 0) {
+            log.error("Order {} was charged but its payment could not be recorded", order.getId());
+            throw new PaymentProcessingException("Payment was charged but could not be recorded for order " + order.getId());
+        }
+        order.setPaymentStatus(PaymentStatus.PAID);
+        order.setStatus(OrderStatus.FINISHED);
+        order.setPaymentDate(paymentDate);
+        order.setPaymentGateway("ONLINE_PAYMENT");
+        order.setCardToken(cardToken);
+        order.setUpdatedAt(paymentDate);
+        return order;
     }
 
-    @Transactional
+    public void abandonPayment(Order order) {
+        orderRepository.failPayment(order.getId(), order.getPaymentStartedAt(),
+                OrderStateMachine.sourcesOf(PaymentStatus.PAYMENT_FAILED), LocalDateTime.now());
+        order.setPaymentStatus(PaymentStatus.PAYMENT_FAILED);
+    }
+
+    @Timed("orders.payment.offline")
     public Order processOfflinePayment(Long id) {
         Order order = getOrderById(id);
         
-        if (order.getPaymentStatus() == PaymentStatus.PAID) {
-            throw new PaymentProcessingException("Order is already paid");
-        }
+        rejectUnlessPayable(order, PaymentStatus.OFFLINE_PAYMENT);
         
+        LocalDateTime paymentDate = LocalDateTime.now();
+        if (orderRepository.recordOfflinePayment(id, "OFFLINE_PAYMENT", OrderStateMachine.sourcesOf(PaymentStatus.OFFLINE_PAYMENT),
+                OrderStateMachine.PAYABLE, paymentDate) == 0) {
+            throw new PaymentProcessingException("Order is already paid or has a payment in progress");
+        }
         order.setPaymentStatus(PaymentStatus.OFFLINE_PAYMENT);
         order.setStatus(OrderStatus.FINISHED);
-        order.setPaymentDate(LocalDateTime.now());
+        order.setPaymentDate(paymentDate);
         order.setPaymentGateway("OFFLINE_PAYMENT");
-        return orderRepository.save(order);
+        order.setUpdatedAt(paymentDate);
+        return order;
     }
 
-    @Transactional
     public Order updateOrderStatus(Long id, OrderStatus status) {
         Order order = getOrderById(id);
+        
+        rejectIfPaymentPending(order);
+        if (status == OrderStatus.FINISHED) {
+            throw new ConflictException("Orders are finished by recording a payment");
+        }
+        if (!OrderStateMachine.canTransition(order.getStatus(), status)) {
+            throw new ConflictException("Order cannot change from " + order.getStatus() + " to " + status);
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        if (orderRepository.transitionStatus(id, status, OrderStateMachine.sourcesOf(status), now) == 0) {
+            throw new ConflictException("Order " + id + " was modified concurrently, reload and retry");
+        }
         order.setStatus(status);
-        return orderRepository.save(order);
+        order.setUpdatedAt(now);
+        return order;
     }
 
-    private void validateOrderItems(Order order) {
-        if (order.getItems() == null || order.getItems().isEmpty()) {
-            throw new IllegalArgumentException("Order must have at least one item");
+    // Flushing inside the transaction surfaces a concurrent payment or status change as a version conflict.
+    private void flushOrConflict(Long id) {
+        try {
+            orderRepository.flush();
+        } catch (OptimisticLockingFailureException e) {
+            throw new ConflictException("Order " + id + " was modified concurrently, reload and retry");
         }
+    }
 
-        for (OrderItem item : order.getItems()) {
-            if (item.getProduct() == null || item.getProduct().getId() == null) {
-                throw new IllegalArgumentException("Order item must have a valid product");
-            }
-            if (item.getQuantity() <= 0) {
-                throw new IllegalArgumentException("Order item quantity must be greater than 0");
-            }
+    private void rejectIfPaymentPending(Order order) {
+        if (order.getPaymentStatus() == PaymentStatus.PENDING) {
+            throw new PaymentProcessingException("Order has a payment in progress");
+        }
+    }
+
+    // Only open, unpaid orders can change their items; a concurrent payment still fails the version check on flush.
+    private void rejectUnlessEditable(Order order) {
+        rejectIfPaymentPending(order);
+        if (order.getPaymentStatus() == PaymentStatus.PAID || order.getPaymentStatus() == PaymentStatus.OFFLINE_PAYMENT) {
+            throw new ConflictException("Order " + order.getId() + " is already paid and cannot be changed");
+        }
+        if (!OrderStateMachine.PAYABLE.contains(order.getStatus())) {
+            throw new ConflictException("Order " + order.getId() + " cannot be changed while " + order.getStatus());
+        }
+    }
+
+    // Fast path for the common rejections; the conditional update still decides under contention.
+    private void rejectUnlessPayable(Order order, PaymentStatus target) {
+        if (order.getPaymentStatus() == PaymentStatus.PAID || order.getPaymentStatus() == PaymentStatus.OFFLINE_PAYMENT) {
+            throw new PaymentProcessingException("Order is already paid");
+        }
+        if (!OrderStateMachine.PAYABLE.contains(order.getStatus())) {
+            throw new PaymentProcessingException("Order cannot be paid while " + order.getStatus());
+        }
+        if (!OrderStateMachine.canTransition(order.getPaymentStatus(), target)) {
+            throw new PaymentProcessingException("Order has a payment in progress");
         }
     }
 
-    private void calculateTotalPrice(Order order) {
-        BigDecimal total = BigDecimal.ZERO;
-        for (OrderItem item : order.getItems()) {
-            BigDecimal itemTotal = item.getProduct().getPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
-            total = total.add(itemTotal);
+    // Loads the items and products of a whole page with one fetch join, keeping the page order.
+    private List<Order> fetchItems(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return orders;
         }
-        order.setTotalPrice(total);
+        Map<Long, Order> fetched = orderRepository.findWithItemsByIdIn(orders.stream().map(Order::getId).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+        return orders.stream()
+                .map(order -> fetched.get(order.getId()))
+                .collect(Collectors.toList());
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,48 @@
+package com.immfly.services;
+
+import com.immfly.models.OrderStatus;
+import com.immfly.repositories.OrderRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the number of orders in each {@link OrderStatus} as the {@code orders.status}
+ * gauge. Counts come from one grouped query on a schedule, so a scrape never touches
+ * the database.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderStatusMetrics implements MeterBinder {
+    private final OrderRepository orderRepository;
+    private final Map<OrderStatus, AtomicLong> counts = new EnumMap<>(OrderStatus.class);
+
+    {
+        for (OrderStatus status : OrderStatus.values()) {
+            counts.put(status, new AtomicLong());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        counts.forEach((status, count) -> Gauge.builder("orders.status", count, AtomicLong::get)
+                .description("Orders in each status")
+                .tag("status", status.name())
+                .register(registry));
+    }
+
+    @Scheduled(fixedDelayString = "${metrics.order-status.refresh-interval:PT30S}")
+    public void refresh() {
+        Map<OrderStatus, Long> current = new EnumMap<>(OrderStatus.class);
+        for (OrderRepository.StatusCount statusCount : orderRepository.countByStatus()) {
+            current.put(statusCount.getStatus(), statusCount.getCount());
+        }
+        counts.forEach((status, count) -> count.set(current.getOrDefault(status, 0L)));
+    }
+}
@@ -0,0 +1,40 @@
+package com.immfly.services;
+
+import lombok.Getter;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+@Getter
+public class PaymentAttempt {
+    private final String id;
+    private final Long orderId;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private final CompletableFuture<PaymentAttempt> completion = new CompletableFuture<>();
+    private volatile PaymentAttemptStatus status = PaymentAttemptStatus.PROCESSING;
+    private volatile String failureReason;
+    private volatile LocalDateTime completedAt;
+
+    PaymentAttempt(String id, Long orderId) {
+        this.id = id;
+        this.orderId = orderId;
+    }
+
+    public boolean isDone() {
+        return completion.isDone();
+    }
+
+    void succeed() {
+        complete(PaymentAttemptStatus.SUCCEEDED, null);
+    }
+
+    void fail(String reason) {
+        complete(PaymentAttemptStatus.FAILED, reason);
+    }
+
+    private void complete(PaymentAttemptStatus outcome, String reason) {
+        failureReason = reason;
+        completedAt = LocalDateTime.now();
+        status = outcome;
+        completion.complete(this);
+    }
+}
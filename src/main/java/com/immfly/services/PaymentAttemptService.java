@@ -0,0 +1,106 @@
+package com.immfly.services;
+
+import com.immfly.exceptions.ResourceNotFoundException;
+import com.immfly.exceptions.ServiceUnavailableException;
+import com.immfly.models.Order;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs online payments off the request thread. The order is claimed as PENDING
+ * before the request returns, so duplicates are rejected immediately, and the
+ * gateway call then runs on the payment executor while clients poll the attempt.
+ */
+@Slf4j
+@Service
+public class PaymentAttemptService {
+    private final OrderService orderService;
+    private final ExecutorService executor;
+    private final Semaphore inFlight;
+    private final Duration retention;
+    private final Map<String, PaymentAttempt> attempts = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PaymentAttemptService(OrderService orderService,
+                                 @Value("${payment.executor.platform-threads:64}") int platformThreads,
+                                 @Value("${payment.executor.max-in-flight:1000}") int maxInFlight,
+                                 @Value("${payment.attempt-retention:PT15M}") Duration retention) {
+        this(orderService, PaymentExecutors.create(platformThreads), maxInFlight, retention);
+    }
+
+    PaymentAttemptService(OrderService orderService, ExecutorService executor, int maxInFlight, Duration retention) {
+        this.orderService = orderService;
+        this.executor = executor;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.retention = retention;
+    }
+
+    public PaymentAttempt submit(Long orderId, String cardToken) {
+        if (!inFlight.tryAcquire()) {
+            throw new ServiceUnavailableException("Too many payments in progress, retry later");
+        }
+
+        Order order;
+        try {
+            order = orderService.startPayment(orderId);
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+
+        PaymentAttempt attempt = new PaymentAttempt(UUID.randomUUID().toString(), orderId);
+        attempts.put(attempt.getId(), attempt);
+        try {
+            executor.execute(() -> charge(attempt, order, cardToken));
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            attempts.remove(attempt.getId());
+            orderService.abandonPayment(order);
+            throw new ServiceUnavailableException("Payment executor is not accepting work, retry later");
+        }
+        return attempt;
+    }
+
+    public PaymentAttempt getAttempt(Long orderId, String attemptId) {
+        PaymentAttempt attempt = attempts.get(attemptId);
+        if (attempt == null || !attempt.getOrderId().equals(orderId)) {
+            throw new ResourceNotFoundException("Payment attempt not found with id: " + attemptId);
+        }
+        return attempt;
+    }
+
+    @Scheduled(fixedDelayString = "${payment.attempt-sweep-interval:PT1M}")
+    public void purgeCompletedAttempts() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        attempts.values().removeIf(attempt -> attempt.isDone() && attempt.getCompletedAt().isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void charge(PaymentAttempt attempt, Order order, String cardToken) {
+        try {
+            orderService.chargePendingPayment(order, cardToken);
+            attempt.succeed();
+        } catch (RuntimeException e) {
+            log.debug("Payment attempt {} for order {} failed", attempt.getId(), order.getId(), e);
+            attempt.fail(e.getMessage());
+        } finally {
+            inFlight.release();
+        }
+    }
+}
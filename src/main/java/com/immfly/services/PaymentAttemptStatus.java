@@ -0,0 +1,7 @@
+package com.immfly.services;
+
+public enum PaymentAttemptStatus {
+    PROCESSING,
+    SUCCEEDED,
+    FAILED
+}
@@ -0,0 +1,40 @@
+package com.immfly.services;
+
+import lombok.extern.slf4j.Slf4j;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+final class PaymentExecutors {
+
+    private PaymentExecutors() {
+    }
+
+    /**
+     * Gateway calls spend nearly all their time waiting, so on Java 21+ each one
+     * gets a virtual thread. Older runtimes fall back to a fixed platform pool.
+     * The method is looked up reflectively because the build targets Java 17.
+     */
+    static ExecutorService create(int platformThreads) {
+        if (Runtime.version().feature() >= 21) {
+            try {
+                ExecutorService executor = (ExecutorService) Executors.class
+                        .getMethod("newVirtualThreadPerTaskExecutor")
+                        .invoke(null);
+                log.info("Running payments on virtual threads");
+                return executor;
+            } catch (ReflectiveOperationException e) {
+                log.warn("Virtual threads unavailable, falling back to a platform thread pool", e);
+            }
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        log.info("Running payments on {} platform threads", platformThreads);
+        return Executors.newFixedThreadPool(platformThreads, task -> {
+            Thread thread = new Thread(task, "payment-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,38 @@
+package com.immfly.services;
+
+import com.immfly.repositories.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Releases online payments left PENDING by a crash between claiming an order
+ * and recording the gateway outcome. The mock gateway offers no lookup, so a
+ * stale attempt is marked PAYMENT_FAILED and the passenger can retry; a late
+ * gateway success still records the order as PAID.
+ */
+@Slf4j
+@Component
+public class PendingPaymentSweeper {
+    private final OrderRepository orderRepository;
+    private final Duration pendingTimeout;
+
+    public PendingPaymentSweeper(OrderRepository orderRepository,
+                                 @Value("${payment.pending-timeout:PT5M}") Duration pendingTimeout) {
+        this.orderRepository = orderRepository;
+        this.pendingTimeout = pendingTimeout;
+    }
+
+    @Scheduled(initialDelayString = "PT0S", fixedDelayString = "${payment.pending-sweep-interval:PT1M}")
+    public int failStalePayments() {
+        LocalDateTime now = LocalDateTime.now();
+        int released = orderRepository.failStalePayments(now.minus(pendingTimeout), now);
+        if (released > 0) {
+            log.warn("Marked {} stale pending payments as failed", released);
+        }
+        return released;
+    }
+}
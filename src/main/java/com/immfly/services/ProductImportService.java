@@ -0,0 +1,316 @@
+package com.immfly.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.immfly.dto.ProductImportResult;
+import com.immfly.dto.ProductImportResult.RowError;
+import com.immfly.dto.ProductImportRow;
+import com.immfly.exceptions.BadRequestException;
+import com.immfly.models.Category;
+import com.immfly.models.Product;
+import com.immfly.repositories.CategoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streams products from NDJSON or CSV into the catalog.
+ * <p>
+ * Rows are read one line at a time and validated against categories loaded once
+ * per import and against {@link ProductNameIndex}, then written in chunks, each in
+ * its own transaction, so memory stays bounded by the chunk size. A chunk that
+ * loses a name to a concurrent writer is retried row by row to pin the error on
+ * the right line, and so is a chunk the database rejects for any other reason.
+ * Rows that fail are reported and skipped; the rest are imported.
+ */
+@Slf4j
+@Service
+public class ProductImportService {
+    private static final List<String> CSV_COLUMNS = List.of("name", "price", "categoryid", "category", "imageurl");
+    // Limits of the product table, checked up front so a row cannot fail a whole chunk.
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final int MAX_IMAGE_URL_LENGTH = 1000;
+    private static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+
+    private final ProductService productService;
+    private final CategoryRepository categoryRepository;
+    private final ProductNameIndex productNameIndex;
+    private final ObjectReader rowReader;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+
+    public ProductImportService(ProductService productService,
+                                CategoryRepository categoryRepository,
+                                ProductNameIndex productNameIndex,
+                                ObjectMapper objectMapper,
+                                @Value("${catalog.import.chunk-size:1000}") int chunkSize,
+                                @Value("${catalog.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.productService = productService;
+        this.categoryRepository = categoryRepository;
+        this.productNameIndex = productNameIndex;
+        this.rowReader = objectMapper.readerFor(ProductImportRow.class);
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    public ProductImportResult importNdjson(InputStream body) {
+        Import run = new Import();
+        try (BufferedReader reader = reader(body)) {
+            long lineNumber = 0;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    run.add(lineNumber, rowReader.readValue(line));
+                } catch (JsonProcessingException e) {
+                    run.fail(lineNumber, "Invalid JSON: " + e.getOriginalMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return run.finish();
+    }
+
+    public ProductImportResult importCsv(InputStream body) {
+        Import run = new Import();
+        try (BufferedReader reader = reader(body)) {
+            String header = reader.readLine();
+            if (header == null) {
+                throw new BadRequestException("CSV import needs a header row");
+            }
+            int[] columns = csvColumns(parseCsvLine(header.replace("\uFEFF", "")));
+            long lineNumber = 1;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    run.add(lineNumber, toRow(parseCsvLine(line), columns));
+                } catch (IllegalArgumentException e) {
+                    run.fail(lineNumber, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return run.finish();
+    }
+
+    private static BufferedReader reader(InputStream body) {
+        return new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    private static int[] csvColumns(List<String> header) {
+        int[] columns = new int[CSV_COLUMNS.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = -1;
+        }
+        for (int i = 0; i < header.size(); i++) {
+            int column = CSV_COLUMNS.indexOf(header.get(i).trim().toLowerCase(Locale.ROOT).replace("_", ""));
+            if (column >= 0) {
+                columns[column] = i;
+            }
+        }
+        if (columns[0] < 0 || columns[1] < 0) {
+            throw new BadRequestException("CSV header must contain name and price columns");
+        }
+        return columns;
+    }
+
+    private static ProductImportRow toRow(List<String> fields, int[] columns) {
+        String categoryId = field(fields, columns[2]);
+        String price = field(fields, columns[1]);
+        try {
+            return ProductImportRow.builder()
+                    .name(field(fields, columns[0]))
+                    .price(price == null ? null : new BigDecimal(price))
+                    .categoryId(categoryId == null ? null : Long.valueOf(categoryId))
+                    .category(field(fields, columns[3]))
+                    .imageUrl(field(fields, columns[4]))
+                    .build();
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number in price or categoryId");
+        }
+    }
+
+    private static String field(List<String> fields, int column) {
+        if (column < 0 || column >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(column).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // RFC 4180 fields on a single line: commas inside quotes and "" as an escaped quote.
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private record PendingRow(long line, ProductImportRow row, Category category) {
+
+        Product toProduct() {
+            return Product.builder()
+                    .name(row.getName())
+                    .price(row.getPrice())
+                    .imageUrl(row.getImageUrl())
+                    .category(category)
+                    .build();
+        }
+    }
+
+    /** State of one import: the current chunk, the category lookup and the report. */
+    private final class Import {
+        private final Map<Long, Category> categoriesById = new HashMap<>();
+        private final Map<String, Category> categoriesByName = new HashMap<>();
+        private final List<PendingRow> chunk = new ArrayList<>(chunkSize);
+        private final Set<String> chunkNames = new HashSet<>();
+        private final List<RowError> errors = new ArrayList<>();
+        private long imported;
+        private long failed;
+
+        Import() {
+            for (Category category : categoryRepository.findAll()) {
+                categoriesById.put(category.getId(), category);
+                categoriesByName.put(category.getName().trim().toLowerCase(Locale.ROOT), category);
+            }
+        }
+
+        void add(long line, ProductImportRow row) {
+            String error = validate(row);
+            if (error != null) {
+                fail(line, error);
+                return;
+            }
+            Category category = null;
+            if (row.getCategoryId() != null) {
+                category = categoriesById.get(row.getCategoryId());
+            } else if (row.getCategory() != null) {
+                category = categoriesByName.get(row.getCategory().trim().toLowerCase(Locale.ROOT));
+            }
+            if (category == null && (row.getCategoryId() != null || row.getCategory() != null)) {
+                fail(line, "Category not found: " + (row.getCategoryId() != null ? row.getCategoryId() : row.getCategory()));
+                return;
+            }
+
+            chunkNames.add(Product.normalizeName(row.getName()));
+            chunk.add(new PendingRow(line, row, category));
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        private String validate(ProductImportRow row) {
+            if (row.getName() == null || row.getName().trim().isEmpty()) {
+                return "Product name cannot be empty";
+            }
+            if (row.getName().length() > MAX_NAME_LENGTH) {
+                return "Product name cannot be longer than " + MAX_NAME_LENGTH + " characters";
+            }
+            if (row.getImageUrl() != null && row.getImageUrl().length() > MAX_IMAGE_URL_LENGTH) {
+                return "Image URL cannot be longer than " + MAX_IMAGE_URL_LENGTH + " characters";
+            }
+            if (row.getPrice() == null) {
+                return "Price is required";
+            }
+            if (row.getPrice().compareTo(BigDecimal.ZERO) < 0) {
+                return "Price cannot be negative";
+            }
+            if (row.getPrice().stripTrailingZeros().scale() > 2) {
+                return "Price cannot have more than 2 decimal places";
+            }
+            if (row.getPrice().compareTo(MAX_PRICE) > 0) {
+                return "Price cannot exceed " + MAX_PRICE;
+            }
+            String normalizedName = Product.normalizeName(row.getName());
+            if (productNameIndex.ownerOf(normalizedName) != null || chunkNames.contains(normalizedName)) {
+                return "Product with name '" + row.getName() + "' already exists";
+            }
+            return null;
+        }
+
+        void fail(long line, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new RowError(line, message));
+            }
+        }
+
+        // Names committed by earlier chunks are in ProductNameIndex by the time the next chunk is validated.
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            try {
+                productService.createProducts(chunk.stream().map(PendingRow::toProduct).toList());
+                imported += chunk.size();
+            } catch (IllegalArgumentException | DataAccessException e) {
+                log.debug("Import chunk was rejected ({}), retrying {} rows one by one", e.getMessage(), chunk.size());
+                for (PendingRow pending : chunk) {
+                    try {
+                        productService.createProducts(List.of(pending.toProduct()));
+                        imported++;
+                    } catch (IllegalArgumentException rowError) {
+                        fail(pending.line, "Product with name '" + pending.row.getName() + "' already exists");
+                    } catch (DataAccessException rowError) {
+                        log.warn("Import row {} was rejected by the database", pending.line, rowError);
+                        fail(pending.line, "Product could not be stored");
+                    }
+                }
+            }
+            chunk.clear();
+            chunkNames.clear();
+        }
+
+        ProductImportResult finish() {
+            flush();
+            return new ProductImportResult(imported, failed, errors, failed > errors.size());
+        }
+    }
+}
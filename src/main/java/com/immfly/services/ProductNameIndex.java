@@ -0,0 +1,51 @@
+package com.immfly.services;
+
+import com.immfly.repositories.ProductRepository;
+import com.immfly.services.cache.TransactionCallbacks;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Committed normalized product names and the product that owns each one, so the
+ * duplicate-name check does not query the database. It only short-circuits: the
+ * unique index on product.normalized_name stays the authority for names committed
+ * concurrently or not yet recorded here.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductNameIndex {
+    private final ProductRepository productRepository;
+    private final Map<String, Long> owners = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        productRepository.findAllNames().forEach(name -> owners.put(name.getNormalizedName(), name.getId()));
+    }
+
+    public Long ownerOf(String normalizedName) {
+        return owners.get(normalizedName);
+    }
+
+    public void productSaved(Long id, String previousName, String normalizedName) {
+        if (id == null || normalizedName == null) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            if (previousName != null && !previousName.equals(normalizedName)) {
+                owners.remove(previousName, id);
+            }
+            owners.put(normalizedName, id);
+        });
+    }
+
+    public void productDeleted(Long id, String normalizedName) {
+        if (normalizedName == null) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> owners.remove(normalizedName, id));
+    }
+}
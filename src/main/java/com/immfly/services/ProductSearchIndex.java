@@ -0,0 +1,481 @@
+package com.immfly.services;
+
+import com.immfly.dto.ProductDTO;
+import com.immfly.exceptions.BadRequestException;
+import com.immfly.models.Category;
+import com.immfly.models.Product;
+import com.immfly.repositories.CategoryRepository;
+import com.immfly.repositories.ProductRepository;
+import com.immfly.services.cache.TransactionCallbacks;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory search over product and category names.
+ * <p>
+ * Names are split into lower-cased, accent-free tokens. A sorted token map answers
+ * prefix queries with a range scan. A term with no exact or prefix match falls back
+ * to typo-tolerant matching: a map from trigrams to the tokens containing them
+ * narrows the vocabulary to a few candidates before their edit distance is checked.
+ * Every query term must match the product's name or its category's name; results
+ * are ranked by how well the terms match.
+ * <p>
+ * Products are addressed by dense slots, so posting lists are plain int arrays and
+ * scores are accumulated in primitive arrays. Each document remembers where it sits
+ * in its posting lists, so re-indexing a product costs the same however many other
+ * products share its tokens or category. {@link ProductService} and
+ * {@link CategoryService} update the index after their transactions commit.
+ */
+@Service
+public class ProductSearchIndex {
+    public static final int MAX_LIMIT = 100;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final float EXACT = 1.0f;
+    private static final float PREFIX = 0.8f;
+    private static final float FUZZY = 0.6f;
+    private static final float CATEGORY_WEIGHT = 0.5f;
+    private static final float NAME_PREFIX_BONUS = 0.1f;
+    private static final Comparator<Hit> RANKING = Comparator.comparingDouble(Hit::score).reversed()
+            .thenComparingInt((Hit hit) -> hit.document.normalizedName.length())
+            .thenComparing(hit -> hit.document.normalizedName)
+            .thenComparing(hit -> hit.document.product.getId());
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private Document[] slots = new Document[0];
+    private final NavigableMap<String, Postings> productsByToken = new TreeMap<>();
+    private final NavigableMap<String, Set<Long>> categoriesByToken = new TreeMap<>();
+    private final Map<String, Set<String>> tokensByTrigram = new HashMap<>();
+    private final Map<Long, String> categoryNames = new HashMap<>();
+    private final Map<Long, Postings> productsByCategory = new HashMap<>();
+
+    public ProductSearchIndex(ProductRepository productRepository, CategoryRepository categoryRepository) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Category> categories = categoryRepository.findAll();
+        List<Product> products = productRepository.findAll();
+        write(() -> {
+            categories.forEach(category -> putCategory(category.getId(), category.getName()));
+            products.forEach(product -> putProduct(ProductDTO.from(product)));
+        });
+    }
+
+    public void productChanged(Product product) {
+        ProductDTO dto = ProductDTO.from(product);
+        TransactionCallbacks.afterCommit(() -> write(() -> putProduct(dto)));
+    }
+
+    public void productDeleted(Long id) {
+        TransactionCallbacks.afterCommit(() -> write(() -> removeProduct(id)));
+    }
+
+    public void categoryChanged(Category category) {
+        Long id = category.getId();
+        String name = category.getName();
+        TransactionCallbacks.afterCommit(() -> write(() -> putCategory(id, name)));
+    }
+
+    public void categoryDeleted(Long id) {
+        TransactionCallbacks.afterCommit(() -> write(() -> removeCategory(id)));
+    }
+
+    public List<ProductDTO> search(String query, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        String normalizedQuery = normalize(query == null ? "" : query).trim();
+        List<String> terms = tokenize(normalizedQuery);
+        if (terms.isEmpty()) {
+            throw new BadRequestException("Search query must contain a letter or digit");
+        }
+
+        lock.readLock().lock();
+        try {
+            float[] total = new float[slots.length];
+            int[] matchedTerms = new int[slots.length];
+            Postings candidates = null;
+            for (int t = 0; t < terms.size(); t++) {
+                candidates = scoreTerm(terms.get(t), t, total, matchedTerms);
+                if (candidates.size == 0) {
+                    return List.of();
+                }
+            }
+
+            // keep only the best `limit` hits instead of sorting every match
+            PriorityQueue<Hit> best = new PriorityQueue<>(limit, RANKING.reversed());
+            for (int i = 0; i < candidates.size; i++) {
+                int slot = candidates.slots[i];
+                float score = total[slot];
+                if (best.size() == limit && score + NAME_PREFIX_BONUS < best.peek().score) {
+                    continue;
+                }
+                Document document = slots[slot];
+                if (document.normalizedName.startsWith(normalizedQuery)) {
+                    score += NAME_PREFIX_BONUS;
+                }
+                Hit hit = new Hit(document, score);
+                if (best.size() < limit) {
+                    best.add(hit);
+                } else if (RANKING.compare(hit, best.peek()) < 0) {
+                    best.poll();
+                    best.add(hit);
+                }
+            }
+            List<Hit> hits = new ArrayList<>(best);
+            hits.sort(RANKING);
+            return hits.stream().map(hit -> hit.document.product).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the best score of one query term, through the product's own name or its
+     * category's, to every product that matched all previous terms, and returns
+     * those products.
+     */
+    private Postings scoreTerm(String term, int termIndex, float[] total, int[] matchedTerms) {
+        float[] termBest = new float[slots.length];
+        Postings touched = new Postings();
+        matchingTokens(term).forEach((token, score) -> {
+            Postings named = productsByToken.get(token);
+            if (named != null) {
+                accumulate(named, score, termIndex, total, matchedTerms, termBest, touched);
+            }
+            for (Long categoryId : categoriesByToken.getOrDefault(token, Set.of())) {
+                Postings inCategory = productsByCategory.get(categoryId);
+                if (inCategory != null) {
+                    accumulate(inCategory, score * CATEGORY_WEIGHT, termIndex, total, matchedTerms, termBest, touched);
+                }
+            }
+        });
+        return touched;
+    }
+
+    private static void accumulate(Postings postings, float score, int termIndex, float[] total,
+                                   int[] matchedTerms, float[] termBest, Postings touched) {
+        for (int i = 0; i < postings.size; i++) {
+            int slot = postings.slots[i];
+            if (matchedTerms[slot] < termIndex || score <= termBest[slot]) {
+                continue;
+            }
+            if (matchedTerms[slot] == termIndex) {
+                matchedTerms[slot] = termIndex + 1;
+                touched.add(slot);
+            }
+            total[slot] += score - termBest[slot];
+            termBest[slot] = score;
+        }
+    }
+
+    private Map<String, Float> matchingTokens(String term) {
+        Map<String, Float> matches = new HashMap<>();
+        for (String token : prefixRange(productsByToken, term)) {
+            matches.put(token, token.equals(term) ? EXACT : PREFIX);
+        }
+        for (String token : prefixRange(categoriesByToken, term)) {
+            matches.put(token, token.equals(term) ? EXACT : PREFIX);
+        }
+
+        int maxDistance = maxEditDistance(term);
+        if (!matches.isEmpty() || maxDistance == 0) {
+            return matches;
+        }
+        Set<String> grams = trigrams(term);
+        int required = Math.max(1, grams.size() - 3 * maxDistance);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : grams) {
+            for (String token : tokensByTrigram.getOrDefault(gram, Set.of())) {
+                shared.merge(token, 1, Integer::sum);
+            }
+        }
+        shared.forEach((token, count) -> {
+            if (count >= required && Math.abs(token.length() - term.length()) <= maxDistance) {
+                int distance = editDistance(term, token, maxDistance);
+                if (distance <= maxDistance) {
+                    matches.put(token, FUZZY - 0.1f * distance);
+                }
+            }
+        });
+        return matches;
+    }
+
+    private void putProduct(ProductDTO product) {
+        removeProduct(product.getId());
+        int slot = allocateSlot();
+        String normalizedName = normalize(product.getName());
+        Set<String> tokens = new LinkedHashSet<>(tokenize(normalizedName));
+        Document document = new Document(product, normalizedName, tokens.size() + 1);
+        slots[slot] = document;
+        slotById.put(product.getId(), slot);
+        for (String token : tokens) {
+            registerToken(token);
+            document.addTo(productsByToken.computeIfAbsent(token, t -> new Postings()), slot);
+        }
+        if (product.getCategoryId() != null) {
+            document.addTo(productsByCategory.computeIfAbsent(product.getCategoryId(), id -> new Postings()), slot);
+        }
+    }
+
+    private void removeProduct(Long id) {
+        Integer slot = slotById.remove(id);
+        if (slot == null) {
+            return;
+        }
+        Document document = slots[slot];
+        slots[slot] = null;
+        freeSlots.push(slot);
+        // the lists are visited in the order putProduct added them
+        int list = 0;
+        for (String token : new LinkedHashSet<>(tokenize(document.normalizedName))) {
+            if (document.removeFrom(list++, slots) == 0) {
+                productsByToken.remove(token);
+                unregisterToken(token);
+            }
+        }
+        Long categoryId = document.product.getCategoryId();
+        if (categoryId != null && document.removeFrom(list, slots) == 0) {
+            productsByCategory.remove(categoryId);
+        }
+    }
+
+    private int allocateSlot() {
+        if (!freeSlots.isEmpty()) {
+            return freeSlots.pop();
+        }
+        int slot = slotById.size();
+        if (slot == slots.length) {
+            slots = Arrays.copyOf(slots, Math.max(16, slots.length * 2));
+        }
+        return slot;
+    }
+
+    private void putCategory(Long id, String name) {
+        removeCategory(id);
+        categoryNames.put(id, name);
+        for (String token : new LinkedHashSet<>(tokenize(normalize(name)))) {
+            registerToken(token);
+            categoriesByToken.computeIfAbsent(token, t -> new HashSet<>()).add(id);
+        }
+    }
+
+    private void removeCategory(Long id) {
+        String name = categoryNames.remove(id);
+        if (name == null) {
+            return;
+        }
+        for (String token : new LinkedHashSet<>(tokenize(normalize(name)))) {
+            Set<Long> ids = categoriesByToken.get(token);
+            if (ids.remove(id) && ids.isEmpty()) {
+                categoriesByToken.remove(token);
+                unregisterToken(token);
+            }
+        }
+    }
+
+    // Called before a token gains its first posting in either map.
+    private void registerToken(String token) {
+        if (!productsByToken.containsKey(token) && !categoriesByToken.containsKey(token)) {
+            trigrams(token).forEach(gram -> tokensByTrigram.computeIfAbsent(gram, g -> new HashSet<>()).add(token));
+        }
+    }
+
+    // Called after a token lost its last posting in one of the maps.
+    private void unregisterToken(String token) {
+        if (productsByToken.containsKey(token) || categoriesByToken.containsKey(token)) {
+            return;
+        }
+        for (String gram : trigrams(token)) {
+            Set<String> tokens = tokensByTrigram.get(gram);
+            tokens.remove(token);
+            if (tokens.isEmpty()) {
+                tokensByTrigram.remove(gram);
+            }
+        }
+    }
+
+    private void write(Runnable update) {
+        lock.writeLock().lock();
+        try {
+            update.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static Set<String> prefixRange(NavigableMap<String, ?> postings, String prefix) {
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).keySet();
+    }
+
+    // Short terms are too ambiguous to correct; longer ones tolerate one typo, and very long ones two.
+    private static int maxEditDistance(String term) {
+        if (term.length() < 4) {
+            return 0;
+        }
+        return term.length() < 8 ? 1 : 2;
+    }
+
+    private static Set<String> trigrams(String token) {
+        String padded = "$" + token + "$";
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    // Levenshtein distance with adjacent transpositions, abandoned once every cell exceeds max.
+    static int editDistance(String a, String b, int max) {
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+
+    static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private static List<String> tokenize(String normalized) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(normalized)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Unordered list of distinct product slots. Removal takes the position the
+     * caller kept from {@link #add} and swaps in the last slot, so both run in
+     * constant time without boxing.
+     */
+    private static final class Postings {
+        private int[] slots = new int[4];
+        private int size;
+
+        int add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size] = slot;
+            return size++;
+        }
+
+        // Returns the slot that moved into the position, or -1 if the position was the last one.
+        int removeAt(int position) {
+            int last = slots[--size];
+            if (position == size) {
+                return -1;
+            }
+            slots[position] = last;
+            return last;
+        }
+    }
+
+    /** An indexed product with its position in each posting list it belongs to. */
+    private static final class Document {
+        private final ProductDTO product;
+        private final String normalizedName;
+        private final Postings[] lists;
+        private final int[] positions;
+        private int listCount;
+
+        Document(ProductDTO product, String normalizedName, int maxLists) {
+            this.product = product;
+            this.normalizedName = normalizedName;
+            this.lists = new Postings[maxLists];
+            this.positions = new int[maxLists];
+        }
+
+        void addTo(Postings postings, int slot) {
+            lists[listCount] = postings;
+            positions[listCount++] = postings.add(slot);
+        }
+
+        // Removes the document from its list-th posting list and returns the entries left there.
+        int removeFrom(int list, Document[] documents) {
+            Postings postings = lists[list];
+            int moved = postings.removeAt(positions[list]);
+            if (moved >= 0) {
+                documents[moved].movedTo(postings, positions[list]);
+            }
+            return postings.size;
+        }
+
+        private void movedTo(Postings postings, int position) {
+            for (int i = 0; i < listCount; i++) {
+                if (lists[i] == postings) {
+                    positions[i] = position;
+                    return;
+                }
+            }
+        }
+    }
+
+    private record Hit(Document document, float score) {
+    }
+}
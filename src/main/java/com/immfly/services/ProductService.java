@@ -1,48 +1,124 @@
 package com.immfly.services;
 
+import com.immfly.dto.CatalogChange.Operation;
+import com.immfly.dto.PriceUpdateRequest.PriceChange;
+import com.immfly.exceptions.BadRequestException;
 import com.immfly.models.Product;
 import com.immfly.models.Category;
 import com.immfly.repositories.ProductRepository;
 import com.immfly.repositories.CategoryRepository;
 import com.immfly.exceptions.ResourceNotFoundException;
+import com.immfly.services.cache.CacheStats;
+import com.immfly.services.cache.CatalogCache;
+import com.immfly.services.cache.CatalogVersion;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ProductService {
+    private static final int MAX_CACHED_PRODUCTS = 10_000;
+    private static final int MAX_CACHED_PRODUCT_LISTS = 256;
+    private static final String ALL_PRODUCTS = "all";
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final CatalogVersion catalogVersion;
+    private final CatalogChangeLog catalogChangeLog;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductNameIndex productNameIndex;
+    private final CatalogCache<Long, Product> productCache = new CatalogCache<>(MAX_CACHED_PRODUCTS);
+    private final CatalogCache<String, List<Product>> productListCache = new CatalogCache<>(MAX_CACHED_PRODUCT_LISTS);
 
-    @Transactional(readOnly = true)
     public List<Product> getAllProducts() {
-        return productRepository.findAll();
+        return productListCache.get(ALL_PRODUCTS, key -> List.copyOf(productRepository.findAll()));
     }
 
-    @Transactional(readOnly = true)
     public Product getProductById(Long id) {
-        return productRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+        Product product = productCache.get(id, key -> productRepository.findById(key).orElse(null));
+        if (product == null) {
+            throw new ResourceNotFoundException("Product not found with id: " + id);
+        }
+        return product;
+    }
+
+    public Map<Long, Product> getProductsByIds(Collection<Long> ids) {
+        Map<Long, Product> products = productCache.getAll(ids, missingIds -> productRepository.findAllById(missingIds)
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity())));
+
+        List<Long> notFound = ids.stream()
+                .filter(id -> !products.containsKey(id))
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+        if (!notFound.isEmpty()) {
+            throw new ResourceNotFoundException("Products not found with ids: " + notFound);
+        }
+        return products;
     }
 
     @Transactional
     public Product createProduct(Product product) {
-        validateProduct(product);
+        validateProduct(product, null);
         if (product.getCategory() != null && product.getCategory().getId() != null) {
             Category category = categoryRepository.findById(product.getCategory().getId())
                     .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + product.getCategory().getId()));
             product.setCategory(category);
         }
-        return productRepository.save(product);
+        Product saved = saveAndCheckName(product);
+        evictProductLists(saved.getCategory());
+        catalogVersion.bump();
+        catalogChangeLog.productChanged(saved, Operation.CREATED);
+        productSearchIndex.productChanged(saved);
+        productNameIndex.productSaved(saved.getId(), null, Product.normalizeName(saved.getName()));
+        return saved;
+    }
+
+    /**
+     * Inserts already validated products in one transaction; Hibernate sends the
+     * inserts in JDBC batches. Categories must be loaded entities. A name taken
+     * concurrently fails the whole call with the "already exists" error.
+     */
+    @Transactional
+    public List<Product> createProducts(List<Product> products) {
+        List<Product> saved = productRepository.saveAll(products);
+        try {
+            productRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            if (isNameConflict(e)) {
+                throw new IllegalArgumentException("A product name in this batch already exists");
+            }
+            throw e;
+        }
+        productListCache.evictAll();
+        catalogVersion.bump();
+        for (Product product : saved) {
+            catalogChangeLog.productChanged(product, Operation.CREATED);
+            productSearchIndex.productChanged(product);
+            productNameIndex.productSaved(product.getId(), null, Product.normalizeName(product.getName()));
+        }
+        return saved;
     }
 
     @Transactional
     public Product updateProduct(Long id, Product productDetails) {
-        Product product = getProductById(id);
-        validateProduct(productDetails);
+        Product product = findProduct(id);
+        Category previousCategory = product.getCategory();
+        String previousName = Product.normalizeName(product.getName());
+        validateProduct(productDetails, id);
         product.setName(productDetails.getName());
         product.setPrice(productDetails.getPrice());
         product.setImageUrl(productDetails.getImageUrl());
@@ -53,34 +129,170 @@ public class ProductService {
             product.setCategory(category);
         }
         
-        return productRepository.save(product);
+        Product saved = saveAndCheckName(product);
+        productCache.evict(id);
+        evictProductLists(previousCategory);
+        evictProductLists(saved.getCategory());
+        catalogVersion.bump();
+        catalogChangeLog.productChanged(saved, Operation.UPDATED);
+        productSearchIndex.productChanged(saved);
+        productNameIndex.productSaved(id, previousName, Product.normalizeName(saved.getName()));
+        return saved;
+    }
+
+    /**
+     * Applies each change as one UPDATE over its category, all in one transaction,
+     * and bumps the catalog version once. Percentages are rounded to cents in the
+     * database. Returns the number of products updated.
+     */
+    @Transactional
+    public int updatePrices(List<PriceChange> changes) {
+        Set<Long> categoryIds = validatePriceChanges(changes);
+        int updated = 0;
+        for (PriceChange change : changes) {
+            if (change.getPrice() != null) {
+                updated += productRepository.setPriceByCategory(change.getCategoryId(), change.getPrice());
+            } else {
+                BigDecimal factor = BigDecimal.ONE.add(change.getPercentage().movePointLeft(2));
+                updated += productRepository.scalePriceByCategory(change.getCategoryId(), factor);
+            }
+        }
+        if (updated == 0) {
+            return 0;
+        }
+
+        evictCaches();
+        for (Product product : productRepository.findByCategoryIdIn(categoryIds)) {
+            catalogChangeLog.productChanged(product, Operation.UPDATED);
+            productSearchIndex.productChanged(product);
+        }
+        return updated;
     }
 
     @Transactional
     public void deleteProduct(Long id) {
-        Product product = getProductById(id);
+        Product product = findProduct(id);
         productRepository.delete(product);
+        productCache.evict(id);
+        evictProductLists(product.getCategory());
+        catalogVersion.bump();
+        catalogChangeLog.productDeleted(id);
+        productSearchIndex.productDeleted(id);
+        productNameIndex.productDeleted(id, Product.normalizeName(product.getName()));
     }
 
-    @Transactional(readOnly = true)
     public List<Product> getProductsByCategory(Long categoryId) {
-        return productRepository.findByCategoryId(categoryId);
+        return productListCache.get(categoryKey(categoryId),
+                key -> List.copyOf(productRepository.findByCategoryId(categoryId)));
+    }
+
+    public List<Product> getProductsByCategories(Collection<Long> categoryIds) {
+        if (categoryIds.isEmpty()) {
+            return List.of();
+        }
+        return productRepository.findByCategoryIdIn(categoryIds);
+    }
+
+    public Map<String, CacheStats> getCacheStats() {
+        return Map.of(
+                "products", productCache.getStats(),
+                "product-lists", productListCache.getStats());
+    }
+
+    public void evictCaches() {
+        productCache.evictAll();
+        productListCache.evictAll();
+        catalogVersion.bump();
     }
 
-    private void validateProduct(Product product) {
+    private void evictProductLists(Category category) {
+        productListCache.evict(ALL_PRODUCTS);
+        if (category != null && category.getId() != null) {
+            productListCache.evict(categoryKey(category.getId()));
+        }
+    }
+
+    private static String categoryKey(Long categoryId) {
+        return "category:" + categoryId;
+    }
+
+    private Product findProduct(Long id) {
+        return productRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+    }
+
+    private Set<Long> validatePriceChanges(List<PriceChange> changes) {
+        if (changes == null || changes.isEmpty()) {
+            throw new BadRequestException("At least one price change is required");
+        }
+        Set<Long> categoryIds = new HashSet<>();
+        for (PriceChange change : changes) {
+            if (change.getCategoryId() == null) {
+                throw new BadRequestException("Each price change needs a categoryId");
+            }
+            if (!categoryIds.add(change.getCategoryId())) {
+                throw new BadRequestException("Category " + change.getCategoryId() + " appears in more than one price change");
+            }
+            if ((change.getPrice() == null) == (change.getPercentage() == null)) {
+                throw new BadRequestException("Each price change needs exactly one of price or percentage");
+            }
+            if (change.getPrice() != null && change.getPrice().compareTo(BigDecimal.ZERO) < 0) {
+                throw new BadRequestException("Price cannot be negative");
+            }
+            if (change.getPercentage() != null && change.getPercentage().compareTo(BigDecimal.valueOf(-100)) < 0) {
+                throw new BadRequestException("Percentage cannot be below -100");
+            }
+            if (change.getPercentage() != null && change.getPercentage().stripTrailingZeros().scale() > 4) {
+                throw new BadRequestException("Percentage cannot have more than 4 decimal places");
+            }
+        }
+
+        Set<Long> missing = new HashSet<>(categoryIds);
+        categoryRepository.findAllById(categoryIds).forEach(category -> missing.remove(category.getId()));
+        if (!missing.isEmpty()) {
+            throw new ResourceNotFoundException("Categories not found with ids: " + missing.stream().sorted().toList());
+        }
+        return categoryIds;
+    }
+
+    private void validateProduct(Product product, Long id) {
         if (product.getPrice().compareTo(BigDecimal.ZERO) < 0) {
             throw new IllegalArgumentException("Price cannot be negative");
         }
         if (product.getName() == null || product.getName().trim().isEmpty()) {
             throw new IllegalArgumentException("Product name cannot be empty");
         }
-        
-        boolean isDuplicate = productRepository.findByNameIgnoreCase(product.getName())
-                .stream()
-                .anyMatch(p -> !p.getId().equals(product.getId()));
-        
-        if (isDuplicate) {
-            throw new IllegalArgumentException("Product with name '" + product.getName() + "' already exists");
+
+        Long owner = productNameIndex.ownerOf(Product.normalizeName(product.getName()));
+        if (owner != null && !owner.equals(id)) {
+            throw duplicateName(product);
         }
     }
-} 
\ No newline at end of file
+
+    // Flushes so a name taken by a concurrent transaction fails here, on the
+    // unique index, rather than at commit with a generic error.
+    private Product saveAndCheckName(Product product) {
+        try {
+            return productRepository.saveAndFlush(product);
+        } catch (DataIntegrityViolationException e) {
+            if (isNameConflict(e)) {
+                throw duplicateName(product);
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isNameConflict(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(Product.NORMALIZED_NAME_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static IllegalArgumentException duplicateName(Product product) {
+        return new IllegalArgumentException("Product with name '" + product.getName() + "' already exists");
+    }
+}
@@ -0,0 +1,12 @@
+package com.immfly.services.cache;
+
+import lombok.Value;
+
+@Value
+public class CacheStats {
+    long hits;
+    long misses;
+    long evictions;
+    int size;
+    int maxSize;
+}
@@ -0,0 +1,127 @@
+package com.immfly.services.cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded, least-recently-used read-through cache for catalog data.
+ * <p>
+ * Loads run outside the lock; a load that raced with an eviction is returned to
+ * its caller but not stored, so a reader can never re-populate the cache with a
+ * value that a concurrent write has just invalidated.
+ */
+public class CatalogCache<K, V> {
+    private final int maxSize;
+    private final LinkedHashMap<K, V> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private long generation;
+
+    public CatalogCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be greater than 0");
+        }
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > CatalogCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            V cached = entries.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+            misses.incrementAndGet();
+            loadGeneration = generation;
+        }
+
+        V loaded = loader.apply(key);
+        if (loaded != null) {
+            synchronized (this) {
+                if (generation == loadGeneration) {
+                    entries.put(key, loaded);
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Resolves all keys in one pass: cached entries are served from memory and the
+     * remaining keys are handed to the loader together. Keys the loader does not
+     * return are absent from the result.
+     */
+    public Map<K, V> getAll(Collection<? extends K> keys, Function<Set<K>, Map<K, V>> loader) {
+        Map<K, V> result = new HashMap<>();
+        Set<K> missing = new LinkedHashSet<>();
+        long loadGeneration;
+        synchronized (this) {
+            for (K key : new LinkedHashSet<>(keys)) {
+                V cached = entries.get(key);
+                if (cached != null) {
+                    result.put(key, cached);
+                } else {
+                    missing.add(key);
+                }
+            }
+            hits.addAndGet(result.size());
+            misses.addAndGet(missing.size());
+            loadGeneration = generation;
+        }
+
+        if (!missing.isEmpty()) {
+            Map<K, V> loaded = loader.apply(missing);
+            synchronized (this) {
+                if (generation == loadGeneration) {
+                    entries.putAll(loaded);
+                }
+            }
+            result.putAll(loaded);
+        }
+        return result;
+    }
+
+    /**
+     * Removes the entry now and again once the surrounding transaction completes,
+     * so a read that loaded the pre-commit row in between is not left behind.
+     */
+    public void evict(K key) {
+        TransactionCallbacks.nowAndAfterCompletion(() -> remove(key));
+    }
+
+    public void evictAll() {
+        TransactionCallbacks.nowAndAfterCompletion(this::clear);
+    }
+
+    public synchronized CacheStats getStats() {
+        return new CacheStats(hits.get(), misses.get(), evictions.get(), entries.size(), maxSize);
+    }
+
+    private synchronized void remove(K key) {
+        generation++;
+        entries.remove(key);
+    }
+
+    private synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+}
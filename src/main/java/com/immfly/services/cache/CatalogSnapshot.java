@@ -0,0 +1,24 @@
+package com.immfly.services.cache;
+
+import lombok.Value;
+
+/**
+ * A catalog response rendered once for a catalog version. The arrays are shared
+ * between requests and must not be modified.
+ */
+@Value
+public class CatalogSnapshot {
+    long version;
+    String etag;
+    byte[] json;
+    byte[] gzip;
+
+    public String getGzipEtag() {
+        return gzipEtag(etag);
+    }
+
+    /** Strong validators differ per content coding, so the gzip body gets its own tag. */
+    public static String gzipEtag(String etag) {
+        return etag.substring(0, etag.length() - 1) + "-gz\"";
+    }
+}
@@ -0,0 +1,32 @@
+package com.immfly.services.cache;
+
+import org.springframework.stereotype.Component;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of the whole catalog, products and categories alike, bumped by every
+ * mutation. It backs the catalog ETags: a request whose If-None-Match equals
+ * {@link #etag()} is answered with 304 before any repository is touched. The
+ * startup epoch keeps tags handed out by a previous process from matching.
+ */
+@Component
+public class CatalogVersion {
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong version = new AtomicLong();
+
+    public long current() {
+        return version.get();
+    }
+
+    public String etag() {
+        return "\"" + epoch + "-" + version.get() + "\"";
+    }
+
+    /**
+     * Bumps now and again once the surrounding transaction completes, so a tag
+     * taken while the change was uncommitted is never left describing new data.
+     */
+    public void bump() {
+        TransactionCallbacks.nowAndAfterCompletion(version::incrementAndGet);
+    }
+}
@@ -0,0 +1,82 @@
+package com.immfly.services.cache;
+
+import com.immfly.dto.CategoryTreeNode;
+import com.immfly.models.Category;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The category hierarchy built from one flat read of the category table. It is
+ * shared between requests and must not be modified; category writes replace it.
+ */
+public class CategoryTree {
+    private final Map<Long, CategoryTreeNode> nodes;
+    private final List<CategoryTreeNode> roots;
+
+    private CategoryTree(Map<Long, CategoryTreeNode> nodes, List<CategoryTreeNode> roots) {
+        this.nodes = nodes;
+        this.roots = roots;
+    }
+
+    // Only the parent's id is read, which Hibernate answers from the foreign key
+    // without initializing the lazy parent.
+    public static CategoryTree of(Collection<Category> categories) {
+        List<Category> sorted = new ArrayList<>(categories);
+        sorted.sort(Comparator.comparing(Category::getId));
+
+        Map<Long, CategoryTreeNode> nodes = new HashMap<>();
+        for (Category category : sorted) {
+            nodes.put(category.getId(), new CategoryTreeNode(
+                    category.getId(), category.getName(), category.getDescription(), new ArrayList<>()));
+        }
+
+        List<CategoryTreeNode> roots = new ArrayList<>();
+        for (Category category : sorted) {
+            CategoryTreeNode node = nodes.get(category.getId());
+            CategoryTreeNode parent = category.getParent() != null ? nodes.get(category.getParent().getId()) : null;
+            if (parent != null) {
+                parent.getChildren().add(node);
+            } else {
+                roots.add(node);
+            }
+        }
+        return new CategoryTree(nodes, List.copyOf(roots));
+    }
+
+    public List<CategoryTreeNode> getRoots() {
+        return roots;
+    }
+
+    public boolean contains(Long id) {
+        return nodes.containsKey(id);
+    }
+
+    /**
+     * Returns the id of the category and of all of its descendants, or an empty
+     * set if the category does not exist.
+     */
+    public Set<Long> subtreeIds(Long id) {
+        Set<Long> ids = new LinkedHashSet<>();
+        CategoryTreeNode root = nodes.get(id);
+        if (root == null) {
+            return ids;
+        }
+        Deque<CategoryTreeNode> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            CategoryTreeNode node = pending.pop();
+            if (ids.add(node.getId())) {
+                node.getChildren().forEach(pending::push);
+            }
+        }
+        return ids;
+    }
+}
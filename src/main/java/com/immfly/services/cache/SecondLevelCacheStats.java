@@ -0,0 +1,32 @@
+package com.immfly.services.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import javax.cache.CacheManager;
+import java.util.Map;
+import java.util.TreeMap;
+
+/** Reads hit, miss and eviction counts of the Hibernate second-level cache regions. */
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheStats {
+    private final CacheManager secondLevelCacheManager;
+
+    public Map<String, CacheStats> getStats() {
+        Map<String, CacheStats> stats = new TreeMap<>();
+        for (String name : secondLevelCacheManager.getCacheNames()) {
+            javax.cache.Cache<Object, Object> region = secondLevelCacheManager.getCache(name);
+            @SuppressWarnings("unchecked")
+            Cache<Object, Object> cache = region.unwrap(Cache.class);
+            @SuppressWarnings("unchecked")
+            CaffeineConfiguration<Object, Object> configuration = region.getConfiguration(CaffeineConfiguration.class);
+            com.github.benmanes.caffeine.cache.stats.CacheStats regionStats = cache.stats();
+            stats.put(name, new CacheStats(regionStats.hitCount(), regionStats.missCount(), regionStats.evictionCount(),
+                    (int) Math.min(cache.estimatedSize(), Integer.MAX_VALUE),
+                    (int) Math.min(configuration.getMaximumSize().orElse(Integer.MAX_VALUE), Integer.MAX_VALUE)));
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,230 @@
+package com.immfly.services.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.immfly.exceptions.BadRequestException;
+import com.immfly.exceptions.ConflictException;
+import com.immfly.exceptions.UnprocessableEntityException;
+import com.immfly.models.IdempotencyRecord;
+import com.immfly.repositories.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Replays the first successful response for a repeated {@code Idempotency-Key}.
+ * Completed responses live in a bounded, TTL-checked in-memory map and, when
+ * enabled, in the idempotency_records table so they survive restarts. Concurrent
+ * requests with a key that is still running wait for the first execution instead
+ * of running the action again. Failures are not recorded, so a retry re-executes.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration inFlightWait;
+    private final boolean persistent;
+    private final Map<String, StoredResponse> responses;
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository repository,
+                              ObjectMapper objectMapper,
+                              @Value("${idempotency.ttl:PT24H}") Duration ttl,
+                              @Value("${idempotency.max-entries:10000}") int maxEntries,
+                              @Value("${idempotency.in-flight-wait:PT30S}") Duration inFlightWait,
+                              @Value("${idempotency.persistence.enabled:false}") boolean persistent) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.inFlightWait = inFlightWait;
+        this.persistent = persistent;
+        this.responses = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public ResponseEntity<?> execute(String key, String operation, Object payload, Supplier<ResponseEntity<?>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException(HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String fingerprint = fingerprint(operation, payload);
+        StoredResponse stored = lookup(key);
+        if (stored != null) {
+            return replay(stored, fingerprint);
+        }
+
+        CompletableFuture<StoredResponse> execution = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(key, execution);
+        if (running != null) {
+            return replay(await(running), fingerprint);
+        }
+
+        try {
+            // the previous holder may have finished between the lookup and the claim
+            stored = lookup(key);
+            if (stored != null) {
+                execution.complete(stored);
+                return replay(stored, fingerprint);
+            }
+
+            ResponseEntity<?> response = action.get();
+            execution.complete(record(key, fingerprint, response));
+            return response;
+        } catch (RuntimeException e) {
+            execution.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, execution);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval:PT5M}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (responses) {
+            responses.values().removeIf(response -> response.isExpired(now));
+        }
+        if (persistent) {
+            int deleted = repository.deleteExpired(now);
+            if (deleted > 0) {
+                log.debug("Deleted {} expired idempotency records", deleted);
+            }
+        }
+    }
+
+    private StoredResponse lookup(String key) {
+        LocalDateTime now = LocalDateTime.now();
+        StoredResponse stored;
+        synchronized (responses) {
+            stored = responses.get(key);
+        }
+        if (stored == null && persistent) {
+            stored = repository.findById(key)
+                    .map(record -> new StoredResponse(record.getFingerprint(), record.getStatusCode(),
+                            record.getLocation(), record.getBody(), record.getExpiresAt()))
+                    .orElse(null);
+            if (stored != null) {
+                remember(key, stored);
+            }
+        }
+        return stored == null || stored.isExpired(now) ? null : stored;
+    }
+
+    private StoredResponse record(String key, String fingerprint, ResponseEntity<?> response) {
+        LocalDateTime now = LocalDateTime.now();
+        URI location = response.getHeaders().getLocation();
+        StoredResponse stored = new StoredResponse(fingerprint, response.getStatusCode().value(),
+                location == null ? null : location.toString(), serialize(response.getBody()), now.plus(ttl));
+        remember(key, stored);
+        if (persistent) {
+            try {
+                repository.save(IdempotencyRecord.builder()
+                        .key(key)
+                        .fingerprint(stored.getFingerprint())
+                        .statusCode(stored.getStatusCode())
+                        .location(stored.getLocation())
+                        .body(stored.getBody())
+                        .createdAt(now)
+                        .expiresAt(stored.getExpiresAt())
+                        .build());
+            } catch (RuntimeException e) {
+                // the action already ran; losing the durable copy must not fail the request
+                log.warn("Could not persist idempotency record {}", key, e);
+            }
+        }
+        return stored;
+    }
+
+    private void remember(String key, StoredResponse stored) {
+        synchronized (responses) {
+            responses.put(key, stored);
+        }
+    }
+
+    private ResponseEntity<?> replay(StoredResponse stored, String fingerprint) {
+        if (!stored.getFingerprint().equals(fingerprint)) {
+            throw new UnprocessableEntityException(HEADER + " was already used with a different request");
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(stored.getStatusCode())
+                .header(REPLAYED_HEADER, "true");
+        if (stored.getLocation() != null) {
+            builder.header(HttpHeaders.LOCATION, stored.getLocation());
+        }
+        if (stored.getBody() == null) {
+            return builder.build();
+        }
+        return builder.contentType(MediaType.APPLICATION_JSON).body(stored.getBody());
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.get(inFlightWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ConflictException("A request with this " + HEADER + " is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("A request with this " + HEADER + " is still being processed");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private String fingerprint(String operation, Object payload) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(objectMapper.writeValueAsBytes(payload));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Cannot fingerprint request", e);
+        }
+    }
+
+    private byte[] serialize(Object body) {
+        if (body == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot store idempotent response", e);
+        }
+    }
+}
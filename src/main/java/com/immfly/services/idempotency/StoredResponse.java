@@ -0,0 +1,17 @@
+package com.immfly.services.idempotency;
+
+import lombok.Value;
+import java.time.LocalDateTime;
+
+@Value
+public class StoredResponse {
+    String fingerprint;
+    int statusCode;
+    String location;
+    byte[] body;
+    LocalDateTime expiresAt;
+
+    boolean isExpired(LocalDateTime now) {
+        return expiresAt.isBefore(now);
+    }
+}
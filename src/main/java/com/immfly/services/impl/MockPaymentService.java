@@ -1,13 +1,20 @@
 package com.immfly.services.impl;
 
 import com.immfly.services.PaymentService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 @Service
+@RequiredArgsConstructor
 public class MockPaymentService implements PaymentService {
+    public static final String GATEWAY_TIMER = "payment.gateway";
+
+    private final MeterRegistry meterRegistry;
     private final ConcurrentHashMap<String, PaymentStatus> paymentStatuses = new ConcurrentHashMap<>();
 
     @Override
@@ -20,18 +27,30 @@ public class MockPaymentService implements PaymentService {
             throw new IllegalArgumentException("Invalid card token");
         }
 
-        if (cardToken.startsWith("9999")) {
-            throw new RuntimeException("Payment failed: Card declined");
-        }
-
+        // Only calls that reach the gateway are timed; the outcome tag also makes the timer an outcome counter.
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
-            TimeUnit.MILLISECONDS.sleep(100);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Payment processing interrupted");
+            if (cardToken.startsWith("9999")) {
+                outcome = "declined";
+                throw new RuntimeException("Payment failed: Card declined");
+            }
+
+            try {
+                TimeUnit.MILLISECONDS.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Payment processing interrupted");
+            }
+
+            paymentStatuses.put(cardToken, PaymentStatus.SUCCESS);
+            outcome = "success";
+        } finally {
+            sample.stop(Timer.builder(GATEWAY_TIMER)
+                    .description("Payment gateway calls")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
         }
-
-        paymentStatuses.put(cardToken, PaymentStatus.SUCCESS);
     }
 
     private enum PaymentStatus {
@@ -0,0 +1,73 @@
+create sequence category_seq start with 1 increment by 50;
+create sequence product_seq start with 1 increment by 50;
+create sequence orders_seq start with 1 increment by 50;
+create sequence order_items_seq start with 1 increment by 50;
+
+create table category (
+    id bigint not null,
+    name varchar(255) not null,
+    description varchar(1000),
+    parent_id bigint,
+    primary key (id),
+    constraint uk_category_name unique (name),
+    constraint fk_category_parent foreign key (parent_id) references category (id)
+);
+
+create table product (
+    id bigint not null,
+    name varchar(255) not null,
+    normalized_name varchar(255) not null,
+    price numeric(10,2) not null,
+    image_url varchar(1000),
+    category_id bigint,
+    primary key (id),
+    constraint uk_product_normalized_name unique (normalized_name),
+    constraint fk_product_category foreign key (category_id) references category (id)
+);
+
+create table orders (
+    id bigint not null,
+    buyer_email varchar(255) not null,
+    seat_letter varchar(255) not null,
+    seat_number integer not null,
+    total_price numeric(38,2) not null,
+    status varchar(255) not null check (status in ('OPEN','DROPPED','FINISHED','CANCELLED')),
+    payment_status varchar(255) check (payment_status in ('PENDING','PAID','PAYMENT_FAILED','OFFLINE_PAYMENT')),
+    payment_gateway varchar(255),
+    card_token varchar(255),
+    payment_date timestamp(6),
+    payment_started_at timestamp(6),
+    created_at timestamp(6) not null,
+    updated_at timestamp(6),
+    version bigint not null,
+    primary key (id)
+);
+
+create index idx_orders_created_at on orders (created_at, id);
+create index idx_orders_status_created_at on orders (status, created_at, id);
+create index idx_orders_payment_status_created_at on orders (payment_status, created_at, id);
+create index idx_orders_seat_created_at on orders (seat_letter, seat_number, created_at, id);
+
+create table order_items (
+    id bigint not null,
+    order_id bigint not null,
+    product_id bigint not null,
+    quantity integer not null,
+    unit_price_minor bigint not null,
+    primary key (id),
+    constraint fk_order_items_order foreign key (order_id) references orders (id),
+    constraint fk_order_items_product foreign key (product_id) references product (id)
+);
+
+create table idempotency_records (
+    idempotency_key varchar(255) not null,
+    fingerprint varchar(255) not null,
+    status_code integer not null,
+    location varchar(255),
+    body blob,
+    created_at timestamp(6) not null,
+    expires_at timestamp(6) not null,
+    primary key (idempotency_key)
+);
+
+create index idx_idempotency_records_expires_at on idempotency_records (expires_at);
@@ -0,0 +1,10 @@
+-- Foreign keys the queries join or filter on: order items by order (order loads and
+-- deletes), by product (product deletes), products by category (category listings and
+-- bulk price updates) and subcategories by parent.
+create index idx_order_items_order_id on order_items (order_id);
+create index idx_order_items_product_id on order_items (product_id);
+create index idx_product_category_id on product (category_id);
+create index idx_category_parent_id on category (parent_id);
+
+-- The pending payment sweep looks up PENDING orders by when the payment started.
+create index idx_orders_payment_status_started_at on orders (payment_status, payment_started_at);
@@ -0,0 +1,56 @@
+package com.immfly;
+
+import com.immfly.dto.OrderSerializationBenchmark;
+import com.immfly.dto.ProductDTOBenchmark;
+import com.immfly.services.OrderCalculatorBenchmark;
+import com.immfly.services.OrderTotalBenchmark;
+import com.immfly.services.ProductSearchBenchmark;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs every JMH benchmark class with the GC profiler and writes its results as
+ * JSON to {@code <jmh.results>/<class>.json}, so runs of different builds can be
+ * compared file by file. {@code -Djmh.benchmarks=OrderTotalBenchmark,...} runs
+ * only the named classes.
+ */
+@Tag("benchmark")
+class BenchmarkTest {
+
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(classes = {
+            OrderCalculatorBenchmark.class,
+            OrderTotalBenchmark.class,
+            ProductSearchBenchmark.class,
+            ProductDTOBenchmark.class,
+            OrderSerializationBenchmark.class
+    })
+    void run(Class<?> benchmark) throws Exception {
+        String selected = System.getProperty("jmh.benchmarks", "");
+        assumeTrue(selected.isBlank() || Arrays.asList(selected.split(",")).contains(benchmark.getSimpleName()),
+                () -> benchmark.getSimpleName() + " not selected");
+
+        File results = new File(System.getProperty("jmh.results", "target/jmh"));
+        results.mkdirs();
+        Collection<RunResult> runs = new Runner(new OptionsBuilder()
+                .include(benchmark.getName() + "\\.")
+                .addProfiler("gc")
+                .resultFormat(ResultFormatType.JSON)
+                .result(new File(results, benchmark.getSimpleName() + ".json").getPath())
+                .build()).run();
+
+        assertFalse(runs.isEmpty());
+    }
+}
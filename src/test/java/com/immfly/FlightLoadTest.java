@@ -0,0 +1,288 @@
+package com.immfly;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Full-flight ordering burst against the application on a random port. Every seat
+ * browses the product list, orders a few products and pays online through
+ * {@code MockPaymentService}, while crew members poll the order list. For each seat
+ * count in {@code load.seats} it prints throughput, latency percentiles and error
+ * rate per endpoint and writes them as JSON to {@code <load.results>/flight-<seats>.json}.
+ * Run with {@code mvn test -Pload-test -Dload.seats=60,180,360}.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.com.immfly=INFO"
+})
+class FlightLoadTest {
+    private static final String BROWSE = "GET /api/products";
+    private static final String CREATE_ORDER = "POST /api/orders";
+    private static final String PAY = "POST /api/orders/{id}/payment";
+    private static final String POLL_ORDERS = "GET /api/orders";
+    private static final String SEAT_LETTERS = "ABCDEF";
+
+    private final int[] seatCounts = Arrays.stream(System.getProperty("load.seats", "60,180").split(","))
+            .map(String::trim)
+            .mapToInt(Integer::parseInt)
+            .toArray();
+    private final int warmupSeats = Integer.getInteger("load.warmup-seats", 30);
+    private final int browses = Integer.getInteger("load.browses", 3);
+    private final int crew = Integer.getInteger("load.crew", 2);
+    private final int thinkTimeMs = Integer.getInteger("load.think-time-ms", 500);
+    private final double maxErrorRate = Double.parseDouble(System.getProperty("load.max-error-rate", "0.01"));
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private HttpClient client;
+
+    private final List<Long> productIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        for (int c = 1; c <= 4; c++) {
+            long categoryId = id(send(post("/api/categories", Map.of("name", "Category " + c))));
+            for (int p = 1; p <= 25; p++) {
+                productIds.add(id(send(post("/api/products", Map.of(
+                        "name", "Product " + c + "-" + p,
+                        "price", 1 + (c * p) % 20,
+                        "categoryId", categoryId)))));
+            }
+        }
+    }
+
+    @Test
+    void flightBurst() throws Exception {
+        // An unreported first flight keeps JIT compilation out of the measured ones.
+        if (warmupSeats > 0) {
+            fly(warmupSeats);
+        }
+        for (int seats : seatCounts) {
+            List<EndpointReport> reports = fly(seats);
+            print(seats, reports);
+            write(seats, reports);
+
+            for (EndpointReport report : reports) {
+                assertTrue(report.errorRate() <= maxErrorRate,
+                        report.endpoint() + " failed " + report.errors() + " of " + report.requests() + " requests with " + seats + " seats");
+            }
+        }
+    }
+
+    private List<EndpointReport> fly(int seats) throws Exception {
+        Map<String, EndpointStats> stats = new LinkedHashMap<>();
+        for (String endpoint : List.of(BROWSE, CREATE_ORDER, PAY, POLL_ORDERS)) {
+            stats.put(endpoint, new EndpointStats());
+        }
+
+        ExecutorService passengers = Executors.newFixedThreadPool(seats + crew);
+        CountDownLatch boarding = new CountDownLatch(1);
+        AtomicBoolean inFlight = new AtomicBoolean(true);
+        List<Future<?>> seatsDone = new ArrayList<>();
+        for (int seat = 0; seat < seats; seat++) {
+            int row = seat / SEAT_LETTERS.length() + 1;
+            char letter = SEAT_LETTERS.charAt(seat % SEAT_LETTERS.length());
+            seatsDone.add(passengers.submit(() -> {
+                boarding.await();
+                passenger(row, letter, stats);
+                return null;
+            }));
+        }
+        List<Future<?>> crewDone = new ArrayList<>();
+        for (int member = 0; member < crew; member++) {
+            crewDone.add(passengers.submit(() -> {
+                boarding.await();
+                while (inFlight.get()) {
+                    call(stats.get(POLL_ORDERS), HttpRequest.newBuilder(uri("/api/orders?limit=50")).GET().build());
+                    pause(thinkTimeMs);
+                }
+                return null;
+            }));
+        }
+
+        long started = System.nanoTime();
+        long elapsed;
+        boarding.countDown();
+        // A failing seat must still land the crew, or their polling threads keep the JVM alive.
+        try {
+            for (Future<?> seat : seatsDone) {
+                seat.get();
+            }
+            elapsed = System.nanoTime() - started;
+            inFlight.set(false);
+            for (Future<?> member : crewDone) {
+                member.get();
+            }
+        } finally {
+            inFlight.set(false);
+            passengers.shutdownNow();
+        }
+
+        List<EndpointReport> reports = new ArrayList<>();
+        stats.forEach((endpoint, endpointStats) -> reports.add(endpointStats.report(endpoint, elapsed)));
+        return reports;
+    }
+
+    // Arrivals are spread over one think time; each step is followed by another.
+    private void passenger(int row, char letter, Map<String, EndpointStats> stats) throws Exception {
+        pause(thinkTimeMs);
+        for (int i = 0; i < browses; i++) {
+            call(stats.get(BROWSE), HttpRequest.newBuilder(uri("/api/products")).GET().build());
+            pause(thinkTimeMs);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Long> basket = new ArrayList<>(productIds);
+        Collections.shuffle(basket, random);
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (Long productId : basket.subList(0, 1 + random.nextInt(3))) {
+            items.add(Map.of("productId", productId, "quantity", 1 + random.nextInt(2)));
+        }
+        HttpResponse<String> created = call(stats.get(CREATE_ORDER), post("/api/orders", Map.of(
+                "buyerEmail", "seat-" + row + letter + "@example.com",
+                "seatLetter", String.valueOf(letter),
+                "seatNumber", row,
+                "items", items)));
+        if (created == null || created.statusCode() >= 400) {
+            return;
+        }
+        pause(thinkTimeMs);
+
+        HttpRequest payment = HttpRequest.newBuilder(uri("/api/orders/" + id(created) + "/payment?cardToken=4111111111111111"))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        call(stats.get(PAY), payment);
+    }
+
+    private HttpResponse<String> call(EndpointStats stats, HttpRequest request) {
+        long started = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            stats.record(System.nanoTime() - started, response.statusCode() < 400);
+            return response;
+        } catch (IOException e) {
+            stats.record(System.nanoTime() - started, false);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+        return response;
+    }
+
+    private HttpRequest post(String path, Object body) throws IOException {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private long id(HttpResponse<String> response) throws IOException {
+        return objectMapper.readTree(response.body()).get("id").asLong();
+    }
+
+    private static void pause(int maxMillis) throws InterruptedException {
+        if (maxMillis > 0) {
+            TimeUnit.MILLISECONDS.sleep(ThreadLocalRandom.current().nextInt(maxMillis + 1));
+        }
+    }
+
+    private static void print(int seats, List<EndpointReport> reports) {
+        System.out.printf("%nFlight with %d seats%n", seats);
+        System.out.printf("%-32s %8s %7s %9s %9s %9s %9s %9s%n",
+                "Endpoint", "Requests", "Errors", "Req/s", "p50 ms", "p95 ms", "p99 ms", "Max ms");
+        for (EndpointReport report : reports) {
+            System.out.printf("%-32s %8d %6.2f%% %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    report.endpoint(), report.requests(), report.errorRate() * 100, report.throughput(),
+                    report.p50Ms(), report.p95Ms(), report.p99Ms(), report.maxMs());
+        }
+    }
+
+    private void write(int seats, List<EndpointReport> reports) throws IOException {
+        File results = new File(System.getProperty("load.results", "target/load-test"));
+        results.mkdirs();
+        objectMapper.writerWithDefaultPrettyPrinter()
+                .writeValue(new File(results, "flight-" + seats + ".json"), Map.of("seats", seats, "endpoints", reports));
+    }
+
+    private record EndpointReport(String endpoint, long requests, long errors, double errorRate, double throughput,
+                                  double p50Ms, double p95Ms, double p99Ms, double maxMs) {
+    }
+
+    private static final class EndpointStats {
+        private final List<Long> latencies = new ArrayList<>();
+        private long errors;
+
+        synchronized void record(long nanos, boolean ok) {
+            latencies.add(nanos);
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        synchronized EndpointReport report(String endpoint, long elapsedNanos) {
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            int requests = sorted.length;
+            return new EndpointReport(endpoint, requests, errors,
+                    requests == 0 ? 0 : (double) errors / requests,
+                    requests / (elapsedNanos / 1e9),
+                    percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99),
+                    percentile(sorted, 1.0));
+        }
+
+        // Nearest-rank percentile in milliseconds.
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(p * sorted.length);
+            return sorted[Math.max(rank, 1) - 1] / 1e6;
+        }
+    }
+}
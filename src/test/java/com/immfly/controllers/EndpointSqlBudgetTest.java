@@ -0,0 +1,330 @@
+package com.immfly.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.immfly.models.Category;
+import com.immfly.models.Order;
+import com.immfly.models.OrderItem;
+import com.immfly.models.Product;
+import com.immfly.services.CategoryService;
+import com.immfly.services.OrderService;
+import com.immfly.services.PaymentAttemptService;
+import com.immfly.services.ProductService;
+import com.immfly.sql.CountSqlStatements;
+import com.immfly.sql.SqlCounts;
+import com.immfly.sql.SqlStatementCounter;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+/**
+ * SQL statement budgets for every endpoint of the product, category and order
+ * controllers. Each call is measured with every cache cold, the worst case, on
+ * data where an N+1 shows up: orders with three items and categories with
+ * subcategories. A call that runs more statements of any kind than its budget
+ * fails the build; lower a budget when a change makes a call cheaper.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@CountSqlStatements
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EndpointSqlBudgetTest {
+    private static final AtomicInteger NAMES = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private PaymentAttemptService paymentAttemptService;
+
+    private Category drinks;
+    private Category softDrinks;
+    private List<Product> products;
+
+    @BeforeAll
+    void seedCatalog() {
+        drinks = categoryService.createCategory(Category.builder().name("Drinks").build());
+        softDrinks = categoryService.createCategory(Category.builder().name("Soft drinks").parent(drinks).build());
+        categoryService.createCategory(Category.builder().name("Hot drinks").parent(drinks).build());
+        products = new ArrayList<>();
+        for (Category category : List.of(drinks, softDrinks, softDrinks)) {
+            products.add(createProduct(category));
+        }
+    }
+
+    // Products
+
+    @Test
+    void getAllProducts() throws Exception {
+        assertBudget(SqlCounts.selects(1), get("/api/products"));
+    }
+
+    @Test
+    void searchProducts() throws Exception {
+        assertBudget(SqlCounts.selects(0), get("/api/products/search").param("q", "product"));
+    }
+
+    @Test
+    void getProductById() throws Exception {
+        assertBudget(SqlCounts.selects(1), get("/api/products/{id}", products.get(0).getId()));
+    }
+
+    @Test
+    void getProductsByCategory() throws Exception {
+        assertBudget(SqlCounts.selects(1), get("/api/products/category/{id}", softDrinks.getId()));
+    }
+
+    @Test
+    void createProduct() throws Exception {
+        assertBudget(SqlCounts.of(1, 1, 0, 0), json(post("/api/products"),
+                "{\"name\":\"" + uniqueName() + "\",\"price\":2.50,\"categoryId\":" + drinks.getId() + "}"));
+    }
+
+    @Test
+    void importProductsFromNdjson() throws Exception {
+        String body = "{\"name\":\"" + uniqueName() + "\",\"price\":1.00,\"categoryId\":" + drinks.getId() + "}\n"
+                + "{\"name\":\"" + uniqueName() + "\",\"price\":2.00,\"category\":\"Soft drinks\"}\n";
+        assertBudget(SqlCounts.of(1, 1, 0, 0), post("/api/products/import").contentType("application/x-ndjson").content(body));
+    }
+
+    @Test
+    void importProductsFromCsv() throws Exception {
+        String body = "name,price,category\n" + uniqueName() + ",1.00,Drinks\n" + uniqueName() + ",2.00,Soft drinks\n";
+        assertBudget(SqlCounts.of(1, 1, 0, 0), post("/api/products/import").contentType("text/csv").content(body));
+    }
+
+    @Test
+    void updatePrices() throws Exception {
+        assertBudget(SqlCounts.of(2, 0, 2, 0), json(post("/api/products/prices"),
+                "{\"changes\":[{\"categoryId\":" + drinks.getId() + ",\"percentage\":0},"
+                        + "{\"categoryId\":" + softDrinks.getId() + ",\"percentage\":0}]}"));
+    }
+
+    @Test
+    void updateProduct() throws Exception {
+        Product product = createProduct(drinks);
+        assertBudget(SqlCounts.of(2, 0, 1, 0), json(put("/api/products/{id}", product.getId()),
+                "{\"name\":\"" + uniqueName() + "\",\"price\":3.00,\"categoryId\":" + softDrinks.getId() + "}"));
+    }
+
+    @Test
+    void deleteProduct() throws Exception {
+        Product product = createProduct(drinks);
+        assertBudget(SqlCounts.of(1, 0, 0, 1), delete("/api/products/{id}", product.getId()));
+    }
+
+    // Categories
+
+    @Test
+    void getAllCategories() throws Exception {
+        assertBudget(SqlCounts.selects(2), get("/api/categories"));
+    }
+
+    @Test
+    void getCategoryTree() throws Exception {
+        assertBudget(SqlCounts.selects(1), get("/api/categories/tree"));
+    }
+
+    @Test
+    void getCategoryById() throws Exception {
+        assertBudget(SqlCounts.selects(3), get("/api/categories/{id}", drinks.getId()));
+    }
+
+    @Test
+    void getCategoryProducts() throws Exception {
+        assertBudget(SqlCounts.selects(2), get("/api/categories/{id}/products", drinks.getId()));
+    }
+
+    @Test
+    void getCategoryProductsWithDescendants() throws Exception {
+        assertBudget(SqlCounts.selects(2), get("/api/categories/{id}/products", drinks.getId())
+                .param("includeDescendants", "true"));
+    }
+
+    @Test
+    void createCategory() throws Exception {
+        assertBudget(SqlCounts.of(0, 1, 0, 0), json(post("/api/categories"), "{\"name\":\"" + uniqueName() + "\"}"));
+    }
+
+    @Test
+    void updateCategory() throws Exception {
+        Category category = categoryService.createCategory(Category.builder().name(uniqueName()).build());
+        assertBudget(SqlCounts.of(2, 0, 1, 0), json(put("/api/categories/{id}", category.getId()),
+                "{\"name\":\"" + uniqueName() + "\"}"));
+    }
+
+    @Test
+    void deleteCategory() throws Exception {
+        Category category = categoryService.createCategory(Category.builder().name(uniqueName()).build());
+        assertBudget(SqlCounts.of(1, 0, 0, 1), delete("/api/categories/{id}", category.getId()));
+    }
+
+    // Orders
+
+    @Test
+    void getOrders() throws Exception {
+        createOrder();
+        createOrder();
+        assertBudget(SqlCounts.selects(2), get("/api/orders"));
+    }
+
+    @Test
+    void getOrderById() throws Exception {
+        assertBudget(SqlCounts.selects(1), get("/api/orders/{id}", createOrder().getId()));
+    }
+
+    @Test
+    void createOrderEndpoint() throws Exception {
+        assertBudget(SqlCounts.of(1, 2, 0, 0), json(post("/api/orders"), orderJson(1)));
+    }
+
+    @Test
+    void updateOrder() throws Exception {
+        assertBudget(SqlCounts.of(2, 0, 2, 0), json(put("/api/orders/{id}", createOrder().getId()), orderJson(2)));
+    }
+
+    @Test
+    void updateOrderItem() throws Exception {
+        Long id = createOrder().getId();
+        assertBudget(SqlCounts.of(2, 0, 2, 0), json(patch("/api/orders/{id}/items", id),
+                "{\"productId\":" + products.get(0).getId() + ",\"quantity\":3}"));
+    }
+
+    @Test
+    void deleteOrder() throws Exception {
+        assertBudget(SqlCounts.of(2, 0, 0, 2), delete("/api/orders/{id}", createOrder().getId()));
+    }
+
+    @Test
+    void processPayment() throws Exception {
+        assertBudget(SqlCounts.of(1, 0, 2, 0), post("/api/orders/{id}/payment", createOrder().getId())
+                .param("cardToken", "4111111111111111"));
+    }
+
+    @Test
+    void processPaymentAsync() throws Exception {
+        Long id = createOrder().getId();
+        coldCaches();
+        SqlStatementCounter.reset();
+
+        MvcResult result = mockMvc.perform(post("/api/orders/{id}/payment", id)
+                .param("cardToken", "4111111111111111")
+                .param("async", "true")).andReturn();
+        assertEquals(202, result.getResponse().getStatus(), result.getResponse().getContentAsString());
+        String attemptId = objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asText();
+        paymentAttemptService.getAttempt(id, attemptId).getCompletion().get(10, TimeUnit.SECONDS);
+
+        SqlStatementCounter.current().assertWithin(SqlCounts.of(1, 0, 2, 0), "POST /api/orders/{id}/payment?async=true");
+    }
+
+    @Test
+    void getPaymentAttempt() throws Exception {
+        Long id = createOrder().getId();
+        String attemptId = paymentAttemptService.submit(id, "4111111111111111").getId();
+        paymentAttemptService.getAttempt(id, attemptId).getCompletion().get(10, TimeUnit.SECONDS);
+
+        assertBudget(SqlCounts.selects(0), get("/api/orders/{id}/payment-attempts/{attemptId}", id, attemptId));
+    }
+
+    @Test
+    void processOfflinePayment() throws Exception {
+        assertBudget(SqlCounts.of(1, 0, 1, 0), post("/api/orders/{id}/offline-payment", createOrder().getId()));
+    }
+
+    @Test
+    void updateOrderStatus() throws Exception {
+        assertBudget(SqlCounts.of(1, 0, 1, 0), put("/api/orders/{id}/status", createOrder().getId())
+                .param("status", "CANCELLED"));
+    }
+
+    private void assertBudget(SqlCounts budget, RequestBuilder request) throws Exception {
+        coldCaches();
+        SqlStatementCounter.reset();
+
+        MvcResult result = mockMvc.perform(request).andReturn();
+        SqlCounts counts = SqlStatementCounter.current();
+
+        int status = result.getResponse().getStatus();
+        assertTrue(status >= 200 && status < 300, "status " + status + ": " + result.getResponse().getContentAsString());
+        String call = result.getRequest().getMethod() + " " + result.getRequest().getRequestURI();
+        counts.assertWithin(budget, call);
+    }
+
+    // Drops the second-level cache and every in-memory catalog cache. The services
+    // also bump the catalog version, which retires the product list snapshot.
+    private void coldCaches() {
+        entityManagerFactory.getCache().evictAll();
+        productService.evictCaches();
+        categoryService.evictCaches();
+    }
+
+    private static MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder builder, String body) {
+        return builder.contentType(MediaType.APPLICATION_JSON).content(body);
+    }
+
+    private Product createProduct(Category category) {
+        return productService.createProduct(Product.builder()
+                .name(uniqueName())
+                .price(new BigDecimal("2.00"))
+                .category(Category.builder().id(category.getId()).build())
+                .build());
+    }
+
+    private Order createOrder() {
+        Order order = Order.builder()
+                .buyerEmail("seat@example.com")
+                .seatLetter("A")
+                .seatNumber(1)
+                .items(new ArrayList<>())
+                .build();
+        for (Product product : products) {
+            order.getItems().add(OrderItem.builder().order(order).product(product).quantity(1).build());
+        }
+        return orderService.createOrder(order);
+    }
+
+    private String orderJson(int quantity) {
+        StringBuilder items = new StringBuilder();
+        for (Product product : products) {
+            items.append(items.length() == 0 ? "" : ",")
+                    .append("{\"productId\":").append(product.getId()).append(",\"quantity\":").append(quantity).append("}");
+        }
+        return "{\"buyerEmail\":\"seat@example.com\",\"seatLetter\":\"B\",\"seatNumber\":2,\"items\":[" + items + "]}";
+    }
+
+    private static String uniqueName() {
+        return "Budget product " + NAMES.incrementAndGet();
+    }
+}
@@ -0,0 +1,61 @@
+package com.immfly.controllers;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void getAllProducts_ShouldTagEachContentCodingDifferently() throws Exception {
+        String identity = etag(null);
+        String gzip = etag("gzip");
+
+        assertNotEquals(identity, gzip);
+        assertEquals(identity.substring(0, identity.length() - 1) + "-gz\"", gzip);
+    }
+
+    @Test
+    void getAllProducts_WithEitherTagInIfNoneMatch_ShouldAnswerNotModified() throws Exception {
+        String identity = etag(null);
+        String gzip = etag("gzip");
+
+        mockMvc.perform(get("/api/products")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, gzip))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, gzip));
+        mockMvc.perform(get("/api/products")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, identity))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, identity));
+        mockMvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, gzip))
+                .andExpect(status().isNotModified());
+    }
+
+    private String etag(String acceptEncoding) throws Exception {
+        List<String> etags = mockMvc.perform(acceptEncoding == null
+                        ? get("/api/products")
+                        : get("/api/products").header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeaders(HttpHeaders.ETAG);
+        assertEquals(1, etags.size());
+        return etags.get(0);
+    }
+}
@@ -0,0 +1,99 @@
+package com.immfly.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.immfly.models.Category;
+import com.immfly.models.Order;
+import com.immfly.models.OrderItem;
+import com.immfly.models.OrderStatus;
+import com.immfly.models.PaymentStatus;
+import com.immfly.models.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of an order with its items and products: the entity
+ * graph as is, and the {@link OrderResponse} the API actually writes, including
+ * its conversion. Run with {@code mvn test -Pbenchmark -Djmh.benchmarks=OrderSerializationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderSerializationBenchmark {
+
+    @Param({"1", "10", "50"})
+    public int itemCount;
+
+    private ObjectMapper objectMapper;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        List<OrderItem> items = new ArrayList<>();
+        order = Order.builder()
+                .id(1L)
+                .buyerEmail("buyer@example.com")
+                .seatLetter("A")
+                .seatNumber(12)
+                .items(items)
+                .status(OrderStatus.FINISHED)
+                .paymentStatus(PaymentStatus.PAID)
+                .paymentGateway("ONLINE_PAYMENT")
+                .paymentDate(now)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        Category category = Category.builder().id(1L).name("Drinks").build();
+        for (int i = 0; i < itemCount; i++) {
+            Product product = Product.builder()
+                    .id((long) i)
+                    .name("Product " + i)
+                    .price(BigDecimal.valueOf(100 + random.nextInt(5000), 2))
+                    .imageUrl("https://cdn.example.com/products/" + i + ".png")
+                    .category(category)
+                    .build();
+            OrderItem item = OrderItem.builder()
+                    .id((long) i)
+                    .order(order)
+                    .product(product)
+                    .quantity(1 + random.nextInt(5))
+                    .build();
+            item.snapshotUnitPrice();
+            items.add(item);
+        }
+        order.setTotalPrice(BigDecimal.TEN);
+    }
+
+    @Benchmark
+    public byte[] serializeOrderEntity() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] serializeOrderResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(OrderResponse.from(order));
+    }
+}
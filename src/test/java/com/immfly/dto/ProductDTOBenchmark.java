@@ -0,0 +1,72 @@
+package com.immfly.dto;
+
+import com.immfly.models.Category;
+import com.immfly.models.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity and {@link ProductDTO} conversion over a whole catalog, as done when the
+ * product list snapshot is rebuilt. Run with
+ * {@code mvn test -Pbenchmark -Djmh.benchmarks=ProductDTOBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductDTOBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int catalogSize;
+
+    private List<Product> products;
+    private List<ProductDTO> dtos;
+
+    @Setup
+    public void setUp() {
+        products = new ArrayList<>(catalogSize);
+        dtos = new ArrayList<>(catalogSize);
+        for (long id = 1; id <= catalogSize; id++) {
+            Product product = Product.builder()
+                    .id(id)
+                    .name("Product " + id)
+                    .price(BigDecimal.valueOf(100 + id % 5000, 2))
+                    .imageUrl("https://cdn.example.com/products/" + id + ".png")
+                    .category(Category.builder().id(1 + id % 20).build())
+                    .build();
+            products.add(product);
+            dtos.add(ProductDTO.from(product));
+        }
+    }
+
+    @Benchmark
+    public void convertToDTO(Blackhole blackhole) {
+        for (Product product : products) {
+            blackhole.consume(ProductDTO.from(product));
+        }
+    }
+
+    @Benchmark
+    public void convertToEntity(Blackhole blackhole) {
+        for (ProductDTO dto : dtos) {
+            blackhole.consume(dto.toEntity());
+        }
+    }
+}
@@ -114,4 +114,24 @@ class OrderItemTest {
         assertNotNull(orderItem.getOrder());
         assertEquals(order, orderItem.getOrder());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testUnitPriceSnapshot() {
+        Product product = Product.builder()
+                .id(1L)
+                .name("Test Product")
+                .price(new BigDecimal("99.99"))
+                .build();
+
+        OrderItem orderItem = OrderItem.builder()
+                .product(product)
+                .quantity(2)
+                .build();
+        orderItem.snapshotUnitPrice();
+        product.setPrice(new BigDecimal("120.00"));
+        orderItem.snapshotUnitPrice();
+
+        assertEquals(9999L, orderItem.getUnitPriceMinor());
+        assertEquals(new BigDecimal("99.99"), orderItem.getUnitPrice());
+    }
+}
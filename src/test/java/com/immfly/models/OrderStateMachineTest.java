@@ -0,0 +1,33 @@
+package com.immfly.models;
+
+import org.junit.jupiter.api.Test;
+import java.util.EnumSet;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderStateMachineTest {
+
+    @Test
+    void testTerminalStatusesHaveNoTransitions() {
+        for (OrderStatus to : OrderStatus.values()) {
+            assertFalse(OrderStateMachine.canTransition(OrderStatus.FINISHED, to));
+            assertFalse(OrderStateMachine.canTransition(OrderStatus.CANCELLED, to));
+        }
+        for (PaymentStatus to : PaymentStatus.values()) {
+            assertFalse(OrderStateMachine.canTransition(PaymentStatus.PAID, to));
+            assertFalse(OrderStateMachine.canTransition(PaymentStatus.OFFLINE_PAYMENT, to));
+        }
+    }
+
+    @Test
+    void testSourcesOfStatus() {
+        assertEquals(EnumSet.of(OrderStatus.OPEN, OrderStatus.DROPPED), OrderStateMachine.sourcesOf(OrderStatus.CANCELLED));
+        assertEquals(EnumSet.of(OrderStatus.OPEN), OrderStateMachine.sourcesOf(OrderStatus.FINISHED));
+    }
+
+    @Test
+    void testSourcesOfPaymentStatus() {
+        assertEquals(EnumSet.of(PaymentStatus.PAYMENT_FAILED), OrderStateMachine.sourcesOf(PaymentStatus.PENDING));
+        assertEquals(EnumSet.of(PaymentStatus.PENDING, PaymentStatus.PAYMENT_FAILED), OrderStateMachine.sourcesOf(PaymentStatus.PAID));
+        assertFalse(OrderStateMachine.canTransition(PaymentStatus.PENDING, PaymentStatus.OFFLINE_PAYMENT));
+    }
+}
@@ -0,0 +1,122 @@
+package com.immfly.repositories;
+
+import com.immfly.models.Order;
+import com.immfly.models.OrderItem;
+import com.immfly.models.OrderStatus;
+import com.immfly.models.PaymentStatus;
+import com.immfly.models.Product;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@TestPropertySource(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class OrderBatchInsertTest {
+    private static final Logger log = LoggerFactory.getLogger(OrderBatchInsertTest.class);
+    private static final int WARMUP_ORDERS = 1_000;
+    private static final int MEASURED_ORDERS = 1_000;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 50; i++) {
+            products.add(entityManager.persist(Product.builder()
+                    .name("Product " + i)
+                    .price(new BigDecimal("2.50"))
+                    .build()));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void saveOrder_ShouldInsertItemsInSingleBatch(int itemCount) {
+        Statistics statistics = getStatistics();
+        saveOrder(itemCount);
+
+        statistics.clear();
+        saveOrder(itemCount);
+
+        assertEquals(itemCount + 1, statistics.getEntityInsertCount());
+        // one INSERT per table, plus at most one sequence fetch per table for a new id block
+        assertTrue(statistics.getPrepareStatementCount() <= 4,
+                "Expected batched inserts but got " + statistics.getPrepareStatementCount() + " statements");
+    }
+
+    @Tag("benchmark")
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void benchmarkSaveOrder(int itemCount) {
+        Statistics statistics = getStatistics();
+
+        for (int i = 0; i < WARMUP_ORDERS; i++) {
+            saveOrder(itemCount);
+        }
+
+        statistics.clear();
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ORDERS; i++) {
+            saveOrder(itemCount);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        double statementsPerOrder = (double) statistics.getPrepareStatementCount() / MEASURED_ORDERS;
+        log.info("Saved orders with {} items: {} statements/order, {} us/order",
+                itemCount, statementsPerOrder, elapsed / 1_000 / MEASURED_ORDERS);
+    }
+
+    private Statistics getStatistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private void saveOrder(int itemCount) {
+        Order order = Order.builder()
+                .buyerEmail("bench@example.com")
+                .seatLetter("A")
+                .seatNumber(1)
+                .totalPrice(BigDecimal.TEN)
+                .status(OrderStatus.OPEN)
+                .paymentStatus(PaymentStatus.PAYMENT_FAILED)
+                .build();
+        for (int i = 0; i < itemCount; i++) {
+            order.getItems().add(OrderItem.builder()
+                    .order(order)
+                    .product(products.get(i))
+                    .quantity(1)
+                    .build());
+        }
+        orderRepository.save(order);
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
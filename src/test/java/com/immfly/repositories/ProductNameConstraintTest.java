@@ -0,0 +1,52 @@
+package com.immfly.repositories;
+
+import com.immfly.models.Product;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@TestPropertySource(properties = "spring.jpa.show-sql=false")
+class ProductNameConstraintTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void saveAndFlush_ShouldStoreNormalizedName() {
+        Product product = productRepository.saveAndFlush(product("  Coca-Cola "));
+
+        assertEquals("coca-cola", product.getNormalizedName());
+
+        product.setName("Coca-Cola Zero");
+        productRepository.saveAndFlush(product);
+
+        List<ProductRepository.ProductName> names = productRepository.findAllNames();
+        assertEquals(1, names.size());
+        assertEquals("coca-cola zero", names.get(0).getNormalizedName());
+    }
+
+    @Test
+    void saveAndFlush_WithSameNameInOtherCase_ShouldViolateUniqueIndex() {
+        productRepository.saveAndFlush(product("Cola"));
+
+        DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class, () ->
+            productRepository.saveAndFlush(product("COLA "))
+        );
+
+        ConstraintViolationException violation = assertInstanceOf(ConstraintViolationException.class, exception.getCause());
+        assertTrue(violation.getConstraintName().toLowerCase().contains(Product.NORMALIZED_NAME_CONSTRAINT));
+    }
+
+    private static Product product(String name) {
+        return Product.builder().name(name).price(new BigDecimal("2.00")).build();
+    }
+}
@@ -0,0 +1,70 @@
+package com.immfly.repositories;
+
+import com.immfly.models.Category;
+import com.immfly.models.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@TestPropertySource(properties = "spring.jpa.show-sql=false")
+class ProductPriceUpdateTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Category drinks;
+    private Category snacks;
+
+    @BeforeEach
+    void setUp() {
+        drinks = categoryRepository.save(Category.builder().name("Drinks").build());
+        snacks = categoryRepository.save(Category.builder().name("Snacks").build());
+    }
+
+    @Test
+    void scalePriceByCategory_ShouldRoundToCentsAndLeaveOtherCategories() {
+        Product cola = productRepository.saveAndFlush(product("Cola", "1.99", drinks));
+        Product chips = productRepository.saveAndFlush(product("Chips", "3.00", snacks));
+
+        int updated = productRepository.scalePriceByCategory(drinks.getId(), new BigDecimal("1.15"));
+
+        assertEquals(1, updated);
+        assertEquals(new BigDecimal("2.29"), productRepository.findById(cola.getId()).orElseThrow().getPrice());
+        assertEquals(new BigDecimal("3.00"), productRepository.findById(chips.getId()).orElseThrow().getPrice());
+    }
+
+    @Test
+    void scalePriceByCategory_WithFractionalPercentage_ShouldNotRoundTheFactor() {
+        Product cola = productRepository.saveAndFlush(product("Cola", "1.99", drinks));
+
+        productRepository.scalePriceByCategory(drinks.getId(), new BigDecimal("1.075"));
+
+        assertEquals(new BigDecimal("2.14"), productRepository.findById(cola.getId()).orElseThrow().getPrice());
+    }
+
+    @Test
+    void setPriceByCategory_ShouldUpdateEveryProductInCategory() {
+        productRepository.saveAndFlush(product("Cola", "1.99", drinks));
+        productRepository.saveAndFlush(product("Water", "1.00", drinks));
+
+        int updated = productRepository.setPriceByCategory(drinks.getId(), new BigDecimal("2.50"));
+
+        assertEquals(2, updated);
+        assertTrue(productRepository.findByCategoryId(drinks.getId()).stream()
+                .allMatch(product -> product.getPrice().compareTo(new BigDecimal("2.50")) == 0));
+    }
+
+    private static Product product(String name, String price, Category category) {
+        return Product.builder().name(name).price(new BigDecimal(price)).category(category).build();
+    }
+}
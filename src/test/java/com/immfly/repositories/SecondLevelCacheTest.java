@@ -0,0 +1,116 @@
+package com.immfly.repositories;
+
+import com.immfly.config.SecondLevelCacheConfig;
+import com.immfly.models.Category;
+import com.immfly.models.Product;
+import com.immfly.services.cache.CacheStats;
+import com.immfly.services.cache.SecondLevelCacheStats;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({SecondLevelCacheConfig.class, SecondLevelCacheStats.class})
+@TestPropertySource(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+// Entries are cached once the writing transaction commits, so every repository call runs in its own.
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SecondLevelCacheStats secondLevelCacheStats;
+
+    private Statistics statistics;
+
+    private Category drinks;
+
+    private Product cola;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        drinks = categoryRepository.save(Category.builder().name("Drinks").build());
+        cola = productRepository.save(Product.builder().name("Cola").price(new BigDecimal("2.50")).category(drinks).build());
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    void findById_Repeated_ShouldBeServedFromCache() {
+        long hits = stats(Product.CACHE_REGION).getHits();
+
+        assertEquals("Cola", productRepository.findById(cola.getId()).orElseThrow().getName());
+        assertEquals("Cola", productRepository.findById(cola.getId()).orElseThrow().getName());
+        assertEquals("Cola", productRepository.findById(cola.getId()).orElseThrow().getName());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(hits + 2, stats(Product.CACHE_REGION).getHits());
+    }
+
+    @Test
+    void categoryFindById_Repeated_ShouldBeServedFromCache() {
+        categoryRepository.findById(drinks.getId()).orElseThrow();
+        categoryRepository.findById(drinks.getId()).orElseThrow();
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics(Category.CACHE_REGION).getHitCount());
+    }
+
+    @Test
+    void findByCategoryId_Repeated_ShouldBeServedFromQueryCache() {
+        assertEquals(1, productRepository.findByCategoryId(drinks.getId()).size());
+        assertEquals(1, productRepository.findByCategoryId(drinks.getId()).size());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryRegionStatistics(ProductRepository.BY_CATEGORY_CACHE_REGION).getHitCount());
+    }
+
+    @Test
+    void findByCategoryId_AfterProductInsert_ShouldHitDatabaseAgain() {
+        productRepository.findByCategoryId(drinks.getId());
+        productRepository.save(Product.builder().name("Water").price(BigDecimal.ONE).category(drinks).build());
+
+        assertEquals(2, productRepository.findByCategoryId(drinks.getId()).size());
+    }
+
+    @Test
+    void regions_ShouldBeBoundedByConfiguredSize() {
+        assertEquals(10_000, stats(Product.CACHE_REGION).getMaxSize());
+        assertEquals(1_000, stats(Category.CACHE_REGION).getMaxSize());
+        assertEquals(1_000, stats(ProductRepository.BY_CATEGORY_CACHE_REGION).getMaxSize());
+    }
+
+    private CacheStats stats(String region) {
+        return secondLevelCacheStats.getStats().get(region);
+    }
+}
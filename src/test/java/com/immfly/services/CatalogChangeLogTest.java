@@ -0,0 +1,193 @@
+package com.immfly.services;
+
+import com.immfly.dto.CatalogChange;
+import com.immfly.dto.CatalogChange.Operation;
+import com.immfly.dto.CatalogChanges;
+import com.immfly.dto.ProductDTO;
+import com.immfly.exceptions.BadRequestException;
+import com.immfly.models.Category;
+import com.immfly.models.Product;
+import com.immfly.repositories.CategoryRepository;
+import com.immfly.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogChangeLogTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    private CatalogChangeLog changeLog;
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        changeLog = new CatalogChangeLog(productRepository, categoryRepository, Duration.ofHours(24));
+        category = Category.builder().id(1L).name("Drinks").build();
+    }
+
+    @Test
+    void getChanges_ShouldReturnChangesAfterSince() {
+        changeLog.categoryChanged(category, Operation.CREATED);
+        changeLog.productChanged(product(1L, "Cola"), Operation.CREATED);
+        changeLog.productChanged(product(2L, "Water"), Operation.CREATED);
+
+        CatalogChanges changes = changeLog.getChanges(1, null, false, 100);
+
+        assertFalse(changes.isResetRequired());
+        assertFalse(changes.isHasMore());
+        assertEquals(3, changes.getVersion());
+        assertEquals(List.of(2L, 3L), changes.getChanges().stream().map(CatalogChange::getVersion).toList());
+        assertEquals("Cola", ((ProductDTO) changes.getChanges().get(0).getData()).getName());
+        assertEquals(1L, ((ProductDTO) changes.getChanges().get(0).getData()).getCategoryId());
+    }
+
+    @Test
+    void getChanges_ShouldKeepOnlyLatestChangePerEntity() {
+        changeLog.productChanged(product(1L, "Cola"), Operation.CREATED);
+        changeLog.productChanged(product(2L, "Water"), Operation.CREATED);
+        changeLog.productChanged(product(1L, "Cola Zero"), Operation.UPDATED);
+
+        CatalogChanges changes = changeLog.getChanges(0, null, false, 100);
+
+        assertEquals(2, changes.getChanges().size());
+        CatalogChange latest = changes.getChanges().get(1);
+        assertEquals(3, latest.getVersion());
+        assertEquals(Operation.UPDATED, latest.getOperation());
+        assertEquals("Cola Zero", ((ProductDTO) latest.getData()).getName());
+    }
+
+    @Test
+    void getChanges_ShouldPage() {
+        for (long id = 1; id <= 5; id++) {
+            changeLog.productChanged(product(id, "P" + id), Operation.CREATED);
+        }
+
+        CatalogChanges first = changeLog.getChanges(0, null, false, 2);
+        CatalogChanges second = changeLog.getChanges(first.getVersion(), first.getEpoch(), false, 2);
+        CatalogChanges last = changeLog.getChanges(second.getVersion(), second.getEpoch(), false, 2);
+
+        assertTrue(first.isHasMore());
+        assertEquals(2, first.getVersion());
+        assertTrue(second.isHasMore());
+        assertFalse(last.isHasMore());
+        assertEquals(1, last.getChanges().size());
+        assertEquals(5, last.getVersion());
+        assertTrue(changeLog.getChanges(5, last.getEpoch(), false, 2).getChanges().isEmpty());
+    }
+
+    @Test
+    void getChanges_WhenTombstonePurged_ShouldRequireReset() {
+        changeLog = new CatalogChangeLog(productRepository, categoryRepository, Duration.ZERO);
+        changeLog.productChanged(product(1L, "Cola"), Operation.CREATED);
+        changeLog.productChanged(product(2L, "Water"), Operation.CREATED);
+        changeLog.productDeleted(1L);
+
+        assertEquals(Operation.DELETED, changeLog.getChanges(2, null, false, 100).getChanges().get(0).getOperation());
+        assertEquals(1, changeLog.purgeTombstones());
+
+        CatalogChanges changes = changeLog.getChanges(2, null, false, 100);
+        assertTrue(changes.isResetRequired());
+        assertEquals(List.of(2L), changes.getChanges().stream().map(CatalogChange::getId).toList());
+        assertFalse(changeLog.getChanges(3, null, false, 100).isResetRequired());
+    }
+
+    @Test
+    void getChanges_WhenPagingThroughReset_ShouldReachTheEnd() {
+        changeLog = new CatalogChangeLog(productRepository, categoryRepository, Duration.ZERO);
+        for (long id = 1; id <= 5; id++) {
+            changeLog.productChanged(product(id, "P" + id), Operation.CREATED);
+        }
+        changeLog.productDeleted(1L);
+        changeLog.productChanged(product(6L, "P6"), Operation.CREATED);
+        assertEquals(1, changeLog.purgeTombstones());
+
+        List<Long> ids = new ArrayList<>();
+        CatalogChanges page = changeLog.getChanges(0, null, false, 2);
+        ids.addAll(page.getChanges().stream().map(CatalogChange::getId).toList());
+        for (int calls = 1; page.isHasMore(); calls++) {
+            assertTrue(page.isResetRequired());
+            assertTrue(calls < 10, "reset paging did not end");
+            page = changeLog.getChanges(page.getVersion(), page.getEpoch(), true, 2);
+            ids.addAll(page.getChanges().stream().map(CatalogChange::getId).toList());
+        }
+
+        assertTrue(page.isResetRequired());
+        assertEquals(List.of(2L, 3L, 4L, 5L, 6L), ids);
+        assertFalse(changeLog.getChanges(page.getVersion(), page.getEpoch(), false, 2).isResetRequired());
+    }
+
+    @Test
+    void getChanges_WithUnknownEpochOrFutureVersion_ShouldRequireReset() {
+        changeLog.productChanged(product(1L, "Cola"), Operation.CREATED);
+        changeLog.productDeleted(1L);
+        changeLog.productChanged(product(2L, "Water"), Operation.CREATED);
+        long epoch = changeLog.getChanges(0, null, false, 1).getEpoch();
+
+        CatalogChanges otherEpoch = changeLog.getChanges(3, epoch + 1, false, 100);
+        CatalogChanges ahead = changeLog.getChanges(10, epoch, false, 100);
+
+        assertTrue(otherEpoch.isResetRequired());
+        assertEquals(List.of(2L), otherEpoch.getChanges().stream().map(CatalogChange::getId).toList());
+        assertTrue(ahead.isResetRequired());
+        assertFalse(changeLog.getChanges(3, epoch, false, 100).isResetRequired());
+    }
+
+    @Test
+    void productChanged_InTransaction_ShouldAppendAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            changeLog.productChanged(product(1L, "Cola"), Operation.CREATED);
+
+            assertTrue(changeLog.getChanges(0, null, false, 100).getChanges().isEmpty());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(1, changeLog.getChanges(0, null, false, 100).getChanges().size());
+    }
+
+    @Test
+    void recordExistingCatalog_ShouldNotOverwriteNewerChanges() {
+        Product renamed = product(1L, "Cola Zero");
+        changeLog.productChanged(renamed, Operation.UPDATED);
+        when(categoryRepository.findAll()).thenReturn(List.of(category));
+        when(productRepository.findAll()).thenReturn(List.of(product(1L, "Cola")));
+
+        changeLog.recordExistingCatalog();
+
+        List<CatalogChange> changes = changeLog.getChanges(0, null, false, 100).getChanges();
+        assertEquals(2, changes.size());
+        assertEquals("Cola Zero", ((ProductDTO) changes.get(0).getData()).getName());
+        assertEquals(CatalogChange.EntityType.CATEGORY, changes.get(1).getType());
+    }
+
+    @Test
+    void getChanges_WithInvalidLimit_ShouldThrowException() {
+        assertThrows(BadRequestException.class, () -> changeLog.getChanges(0, null, false, 0));
+        assertThrows(BadRequestException.class, () -> changeLog.getChanges(0, null, false, CatalogChangeLog.MAX_LIMIT + 1));
+        assertThrows(BadRequestException.class, () -> changeLog.getChanges(-1, null, false, 10));
+    }
+
+    private Product product(Long id, String name) {
+        return Product.builder().id(id).name(name).price(new BigDecimal("2.50")).category(category).build();
+    }
+}
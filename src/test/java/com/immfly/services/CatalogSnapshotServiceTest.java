@@ -0,0 +1,91 @@
+package com.immfly.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.immfly.models.Product;
+import com.immfly.services.cache.CatalogSnapshot;
+import com.immfly.services.cache.CatalogVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogSnapshotServiceTest {
+
+    @Mock
+    private ProductService productService;
+
+    private final CatalogVersion catalogVersion = new CatalogVersion();
+
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @BeforeEach
+    void setUp() {
+        catalogSnapshotService = new CatalogSnapshotService(productService, catalogVersion, new ObjectMapper(), true);
+    }
+
+    @Test
+    void getProducts_ShouldRenderOncePerCatalogVersion() {
+        when(productService.getAllProducts()).thenReturn(List.of(product(1L, "Cola")));
+
+        CatalogSnapshot first = catalogSnapshotService.getProducts();
+        CatalogSnapshot second = catalogSnapshotService.getProducts();
+
+        assertSame(first, second);
+        assertTrue(new String(first.getJson()).startsWith("[{\"id\":1,\"name\":\"Cola\""));
+        assertEquals(catalogVersion.etag(), first.getEtag());
+        assertNotEquals(first.getEtag(), first.getGzipEtag());
+        assertTrue(first.getGzipEtag().startsWith("\"") && first.getGzipEtag().endsWith("-gz\""));
+        verify(productService, times(1)).getAllProducts();
+    }
+
+    @Test
+    void getProducts_AfterCatalogChange_ShouldRebuild() {
+        when(productService.getAllProducts())
+                .thenReturn(List.of(product(1L, "Cola")))
+                .thenReturn(List.of(product(1L, "Cola"), product(2L, "Water")));
+
+        CatalogSnapshot before = catalogSnapshotService.getProducts();
+        catalogVersion.bump();
+        CatalogSnapshot after = catalogSnapshotService.getProducts();
+
+        assertNotEquals(before.getEtag(), after.getEtag());
+        assertTrue(new String(after.getJson()).contains("Water"));
+    }
+
+    @Test
+    void getProducts_WithGzip_ShouldCompressSameBody() throws Exception {
+        when(productService.getAllProducts()).thenReturn(List.of(product(1L, "Cola")));
+
+        CatalogSnapshot snapshot = catalogSnapshotService.getProducts();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(snapshot.getGzip()))) {
+            assertArrayEquals(snapshot.getJson(), in.readAllBytes());
+        }
+    }
+
+    @Test
+    void getProducts_WithGzipDisabled_ShouldOnlyKeepJson() {
+        catalogSnapshotService = new CatalogSnapshotService(productService, catalogVersion, new ObjectMapper(), false);
+        when(productService.getAllProducts()).thenReturn(List.of(product(1L, "Cola")));
+
+        assertNull(catalogSnapshotService.getProducts().getGzip());
+    }
+
+    private static Product product(Long id, String name) {
+        return Product.builder()
+                .id(id)
+                .name(name)
+                .price(new BigDecimal("2.50"))
+                .build();
+    }
+}
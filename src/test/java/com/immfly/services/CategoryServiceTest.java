@@ -3,6 +3,8 @@ package com.immfly.services;
 import com.immfly.models.Category;
 import com.immfly.repositories.CategoryRepository;
 import com.immfly.exceptions.ResourceNotFoundException;
+import com.immfly.services.cache.CatalogVersion;
+import com.immfly.services.cache.CategoryTree;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,6 +14,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -23,11 +26,19 @@ class CategoryServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private CatalogChangeLog catalogChangeLog;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    private final CatalogVersion catalogVersion = new CatalogVersion();
+
     private CategoryService categoryService;
 
     @BeforeEach
     void setUp() {
-        categoryService = new CategoryService(categoryRepository);
+        categoryService = new CategoryService(categoryRepository, catalogVersion, catalogChangeLog, productSearchIndex);
     }
 
     @Test
@@ -193,4 +204,56 @@ class CategoryServiceTest {
             categoryService.deleteCategory(999L)
         );
     }
-} 
\ No newline at end of file
+
+    @Test
+    void getCategoryById_AfterUpdate_ShouldReloadFromRepository() {
+        Category category = Category.builder()
+                .id(1L)
+                .name("Old Name")
+                .build();
+
+        Category updatedCategory = Category.builder()
+                .name("New Name")
+                .build();
+
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
+        when(categoryRepository.save(any(Category.class))).thenAnswer(i -> i.getArgument(0));
+
+        categoryService.getCategoryById(1L);
+        categoryService.getCategoryById(1L);
+        categoryService.updateCategory(1L, updatedCategory);
+        Category result = categoryService.getCategoryById(1L);
+
+        assertEquals("New Name", result.getName());
+        verify(categoryRepository, times(3)).findById(1L);
+        assertEquals(1, categoryService.getCacheStats().get("categories").getHits());
+    }
+
+    @Test
+    void createCategory_ShouldBumpCatalogVersion() {
+        when(categoryRepository.save(any(Category.class))).thenAnswer(i -> i.getArgument(0));
+        long version = catalogVersion.current();
+
+        categoryService.createCategory(Category.builder().name("Drinks").build());
+
+        assertTrue(catalogVersion.current() > version);
+    }
+
+    @Test
+    void getCategoryTree_ShouldBeCachedUntilCategoryChanges() {
+        Category drinks = Category.builder().id(1L).name("Drinks").build();
+        Category hot = Category.builder().id(2L).name("Hot").parent(drinks).build();
+
+        when(categoryRepository.findAll()).thenReturn(List.of(drinks, hot));
+        when(categoryRepository.save(any(Category.class))).thenAnswer(i -> i.getArgument(0));
+
+        categoryService.getCategoryTree();
+        CategoryTree tree = categoryService.getCategoryTree();
+        categoryService.createCategory(Category.builder().id(3L).name("Snacks").build());
+        categoryService.getCategoryTree();
+
+        assertEquals(Set.of(1L, 2L), tree.subtreeIds(1L));
+        verify(categoryRepository, times(2)).findAll();
+        assertEquals(1, categoryService.getCacheStats().get("category-tree").getHits());
+    }
+}
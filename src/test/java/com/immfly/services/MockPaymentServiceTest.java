@@ -1,6 +1,7 @@
 package com.immfly.services;
 
 import com.immfly.services.impl.MockPaymentService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
@@ -11,10 +12,12 @@ import static org.junit.jupiter.api.Assertions.*;
 
 class MockPaymentServiceTest {
     private MockPaymentService paymentService;
+    private SimpleMeterRegistry meterRegistry;
 
     @BeforeEach
     void setUp() {
-        paymentService = new MockPaymentService();
+        meterRegistry = new SimpleMeterRegistry();
+        paymentService = new MockPaymentService(meterRegistry);
     }
 
     @Test
@@ -93,4 +96,18 @@ class MockPaymentServiceTest {
         t1.join();
         t2.join();
     }
-} 
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should time gateway calls by outcome")
+    void testGatewayCallsAreTimedByOutcome() throws Exception {
+        BigDecimal amount = new BigDecimal("100.00");
+
+        paymentService.processPayment(amount, "1234567890123456");
+        assertThrows(RuntimeException.class, () -> paymentService.processPayment(amount, "9999000000000000"));
+        assertThrows(IllegalArgumentException.class, () -> paymentService.processPayment(amount, " "));
+
+        assertEquals(1, meterRegistry.get(MockPaymentService.GATEWAY_TIMER).tag("outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get(MockPaymentService.GATEWAY_TIMER).tag("outcome", "declined").timer().count());
+        assertEquals(2, meterRegistry.get(MockPaymentService.GATEWAY_TIMER).timers().stream().mapToLong(t -> t.count()).sum());
+    }
+}
@@ -0,0 +1,76 @@
+package com.immfly.services;
+
+import com.immfly.models.Category;
+import com.immfly.models.Order;
+import com.immfly.models.OrderItem;
+import com.immfly.models.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the per-order work {@link OrderService} does through {@link OrderCalculator}
+ * on every create and update: item validation and the total. Run with
+ * {@code mvn test -Pbenchmark -Djmh.benchmarks=OrderCalculatorBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderCalculatorBenchmark {
+
+    @Param({"1", "10", "50", "200"})
+    public int itemCount;
+
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        Category category = Category.builder().id(1L).name("Drinks").build();
+        List<OrderItem> items = new ArrayList<>();
+        order = Order.builder().buyerEmail("buyer@example.com").seatLetter("A").seatNumber(1).items(items).build();
+        for (int i = 0; i < itemCount; i++) {
+            Product product = Product.builder()
+                    .id((long) i)
+                    .name("Product " + i)
+                    .price(BigDecimal.valueOf(100 + random.nextInt(5000), 2))
+                    .category(category)
+                    .build();
+            items.add(OrderItem.builder()
+                    .order(order)
+                    .product(product)
+                    .quantity(1 + random.nextInt(5))
+                    .build());
+        }
+        items.forEach(OrderItem::snapshotUnitPrice);
+    }
+
+    @Benchmark
+    public Order validateItems() {
+        OrderCalculator.validateItems(order);
+        return order;
+    }
+
+    @Benchmark
+    public BigDecimal calculateTotalPrice() {
+        OrderCalculator.calculateTotalPrice(order);
+        return order.getTotalPrice();
+    }
+}
@@ -0,0 +1,229 @@
+package com.immfly.services;
+
+import com.immfly.exceptions.ConflictException;
+import com.immfly.exceptions.PaymentProcessingException;
+import com.immfly.models.Order;
+import com.immfly.models.OrderItem;
+import com.immfly.models.OrderStatus;
+import com.immfly.models.PaymentStatus;
+import com.immfly.models.Product;
+import com.immfly.repositories.OrderRepository;
+import com.immfly.repositories.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs without a test transaction so every thread sees the others' committed updates.
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "spring.jpa.show-sql=false")
+class OrderConcurrencyTest {
+    private static final int THREADS = 16;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicInteger charges = new AtomicInteger();
+
+    private final List<BigDecimal> chargedAmounts = new CopyOnWriteArrayList<>();
+
+    private OrderService orderService;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        orderService = new OrderService(orderRepository, (amount, cardToken) -> {
+            charges.incrementAndGet();
+            chargedAmounts.add(amount);
+            Thread.sleep(5);
+        });
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @RepeatedTest(5)
+    void processPayment_WithConcurrentRequests_ShouldChargeOnce() throws Exception {
+        Long id = createOrder().getId();
+
+        List<Future<Order>> results = race(() -> orderService.processPayment(id, "card"));
+
+        assertEquals(1, succeeded(results, PaymentProcessingException.class));
+        assertEquals(1, charges.get());
+        Order paid = orderRepository.findById(id).orElseThrow();
+        assertEquals(PaymentStatus.PAID, paid.getPaymentStatus());
+        assertEquals(OrderStatus.FINISHED, paid.getStatus());
+    }
+
+    @RepeatedTest(5)
+    void onlineAndOfflinePayment_WhenRacing_ShouldRecordExactlyOne() throws Exception {
+        Long id = createOrder().getId();
+
+        List<Future<Order>> results = race(i -> i % 2 == 0
+                ? orderService.processPayment(id, "card")
+                : orderService.processOfflinePayment(id));
+
+        assertEquals(1, succeeded(results, PaymentProcessingException.class));
+        Order paid = orderRepository.findById(id).orElseThrow();
+        assertEquals(paid.getPaymentStatus() == PaymentStatus.PAID ? 1 : 0, charges.get());
+    }
+
+    @RepeatedTest(5)
+    void cancelAndPayment_WhenRacing_ShouldNotChargeCancelledOrder() throws Exception {
+        Long id = createOrder().getId();
+
+        List<Future<Order>> results = race(i -> i % 2 == 0
+                ? orderService.processPayment(id, "card")
+                : orderService.updateOrderStatus(id, OrderStatus.CANCELLED));
+
+        Order order = orderRepository.findById(id).orElseThrow();
+        if (order.getStatus() == OrderStatus.CANCELLED) {
+            assertEquals(0, charges.get());
+            assertEquals(PaymentStatus.PAYMENT_FAILED, order.getPaymentStatus());
+        } else {
+            assertEquals(1, charges.get());
+            assertEquals(PaymentStatus.PAID, order.getPaymentStatus());
+        }
+        assertEquals(1, succeeded(results, PaymentProcessingException.class, ConflictException.class));
+    }
+
+    @RepeatedTest(5)
+    void updateAndPayment_WhenRacing_ShouldChargeTheRecordedTotal() throws Exception {
+        Order order = createOrder();
+        Long id = order.getId();
+        Product product = order.getItems().get(0).getProduct();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        race(i -> i % 2 == 0
+                ? orderService.processPayment(id, "card")
+                : transaction.execute(status -> orderService.updateOrderItem(id, product, i % 5 + 1)));
+
+        Order recorded = orderRepository.findById(id).orElseThrow();
+        if (recorded.getPaymentStatus() == PaymentStatus.PAID) {
+            assertEquals(1, chargedAmounts.size());
+            assertEquals(0, recorded.getTotalPrice().compareTo(chargedAmounts.get(0)),
+                    () -> "Charged " + chargedAmounts.get(0) + " for an order totalling " + recorded.getTotalPrice());
+        } else {
+            assertEquals(0, charges.get());
+        }
+    }
+
+    @Test
+    void lateOutcomeOfReleasedAttempt_ShouldNotTouchNewerAttempt() {
+        Long id = createOrder().getId();
+        Order released = orderService.startPayment(id);
+        LocalDateTime now = LocalDateTime.now();
+        assertEquals(1, orderRepository.failStalePayments(now.plusSeconds(1), now));
+        Order current = orderService.startPayment(id);
+
+        orderService.abandonPayment(released);
+        assertEquals(PaymentStatus.PENDING, orderRepository.findById(id).orElseThrow().getPaymentStatus());
+        assertThrows(PaymentProcessingException.class, () -> orderService.chargePendingPayment(released, "card"));
+        assertEquals(PaymentStatus.PENDING, orderRepository.findById(id).orElseThrow().getPaymentStatus());
+
+        orderService.chargePendingPayment(current, "card");
+        assertEquals(PaymentStatus.PAID, orderRepository.findById(id).orElseThrow().getPaymentStatus());
+    }
+
+    @Test
+    void save_WithStaleVersion_ShouldFailOptimisticLock() {
+        Order stale = createOrder();
+        orderService.updateOrderStatus(stale.getId(), OrderStatus.DROPPED);
+
+        stale.setSeatNumber(2);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> orderRepository.save(stale));
+        assertEquals(1, orderRepository.findById(stale.getId()).orElseThrow().getSeatNumber());
+    }
+
+    private List<Future<Order>> race(Callable<Order> task) throws InterruptedException {
+        return race(i -> task.call());
+    }
+
+    private List<Future<Order>> race(IndexedTask task) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Order>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            int index = i;
+            results.add(executor.submit(() -> {
+                start.await();
+                return task.call(index);
+            }));
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        return results;
+    }
+
+    @SafeVarargs
+    private static int succeeded(List<Future<Order>> results, Class<? extends Exception>... expectedFailures) throws InterruptedException {
+        int succeeded = 0;
+        for (Future<Order> result : results) {
+            try {
+                result.get();
+                succeeded++;
+            } catch (java.util.concurrent.ExecutionException e) {
+                Throwable cause = e.getCause();
+                assertTrue(List.of(expectedFailures).stream().anyMatch(type -> type.isInstance(cause)),
+                        () -> "Unexpected failure: " + cause);
+            }
+        }
+        return succeeded;
+    }
+
+    private Order createOrder() {
+        Product product = productRepository.save(Product.builder()
+                .name("Product " + System.nanoTime())
+                .price(new BigDecimal("2.50"))
+                .build());
+        Order order = Order.builder()
+                .buyerEmail("test@example.com")
+                .seatLetter("A")
+                .seatNumber(1)
+                .items(new ArrayList<>())
+                .build();
+        order.getItems().add(OrderItem.builder().order(order).product(product).quantity(2).build());
+        return orderService.createOrder(order);
+    }
+
+    private interface IndexedTask {
+        Order call(int index) throws Exception;
+    }
+}
@@ -0,0 +1,103 @@
+package com.immfly.services;
+
+import com.immfly.dto.OrderFilter;
+import com.immfly.dto.OrderPage;
+import com.immfly.exceptions.BadRequestException;
+import com.immfly.models.Order;
+import com.immfly.models.OrderStatus;
+import com.immfly.repositories.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+@DataJpaTest
+@TestPropertySource(properties = "spring.jpa.show-sql=false")
+class OrderPaginationTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        orderService = new OrderService(orderRepository, mock(PaymentService.class));
+        for (int i = 0; i < 25; i++) {
+            Order order = orderRepository.save(Order.builder()
+                    .buyerEmail("seat" + i + "@example.com")
+                    .seatLetter(i % 2 == 0 ? "A" : "B")
+                    .seatNumber(i)
+                    .totalPrice(BigDecimal.TEN)
+                    .build());
+            if (i % 5 == 0) {
+                order.setStatus(OrderStatus.CANCELLED);
+            }
+        }
+        orderRepository.flush();
+    }
+
+    @Test
+    void getOrders_ShouldWalkAllPagesNewestFirstWithoutGapsOrDuplicates() {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            OrderPage<Order> page = orderService.getOrders(new OrderFilter(), cursor, 10);
+            page.getOrders().forEach(order -> seen.add(order.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        List<Long> expected = orderRepository.findAll().stream()
+                .sorted(Comparator.comparing(Order::getCreatedAt).thenComparing(Order::getId).reversed())
+                .map(Order::getId)
+                .collect(Collectors.toList());
+        assertEquals(3, pages);
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    void getOrders_WithFilters_ShouldReturnOnlyMatchingOrders() {
+        OrderFilter filter = new OrderFilter();
+        filter.setStatus(OrderStatus.CANCELLED);
+        filter.setSeatLetter("A");
+
+        OrderPage<Order> page = orderService.getOrders(filter, null, 50);
+
+        assertEquals(3, page.getOrders().size());
+        assertNull(page.getNextCursor());
+        page.getOrders().forEach(order -> {
+            assertEquals(OrderStatus.CANCELLED, order.getStatus());
+            assertEquals("A", order.getSeatLetter());
+        });
+    }
+
+    @Test
+    void getOrders_WithExactPageSize_ShouldNotReturnCursor() {
+        OrderPage<Order> page = orderService.getOrders(new OrderFilter(), null, 25);
+
+        assertEquals(25, page.getOrders().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getOrders_WithInvalidCursorOrLimit_ShouldThrowException() {
+        assertThrows(BadRequestException.class, () ->
+            orderService.getOrders(new OrderFilter(), "not-a-cursor", 10)
+        );
+        assertThrows(BadRequestException.class, () ->
+            orderService.getOrders(new OrderFilter(), null, OrderService.MAX_PAGE_SIZE + 1)
+        );
+    }
+}
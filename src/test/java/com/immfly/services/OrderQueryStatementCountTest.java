@@ -0,0 +1,146 @@
+package com.immfly.services;
+
+import com.immfly.dto.OrderFilter;
+import com.immfly.dto.OrderPage;
+import com.immfly.models.Order;
+import com.immfly.models.OrderItem;
+import com.immfly.models.Product;
+import com.immfly.repositories.OrderRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+@DataJpaTest
+@TestPropertySource(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class OrderQueryStatementCountTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private OrderService orderService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        orderService = new OrderService(orderRepository, mock(PaymentService.class));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5, 20})
+    void getOrders_ShouldUseConstantStatementsRegardlessOfItemCount(int itemCount) {
+        for (int i = 0; i < 10; i++) {
+            createOrder(itemCount);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        OrderPage<Order> page = orderService.getOrders(new OrderFilter(), null, 50);
+        int itemsRead = readGraph(page.getOrders());
+
+        assertEquals(10 * itemCount, itemsRead);
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5, 20})
+    void getOrderById_ShouldUseSingleStatementRegardlessOfItemCount(int itemCount) {
+        Long id = createOrder(itemCount).getId();
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        int itemsRead = readGraph(List.of(orderService.getOrderById(id)));
+
+        assertEquals(itemCount, itemsRead);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void updateOrder_ChangingOneQuantity_ShouldNotReinsertItems() {
+        Order order = createOrder(20);
+        entityManager.flush();
+        entityManager.clear();
+
+        Order changes = Order.builder()
+                .buyerEmail(order.getBuyerEmail())
+                .seatLetter(order.getSeatLetter())
+                .seatNumber(order.getSeatNumber())
+                .items(new ArrayList<>())
+                .build();
+        for (OrderItem item : order.getItems()) {
+            changes.getItems().add(OrderItem.builder()
+                    .product(item.getProduct())
+                    .quantity(item == order.getItems().get(0) ? 5 : item.getQuantity())
+                    .build());
+        }
+        statistics.clear();
+
+        orderService.updateOrder(order.getId(), changes);
+
+        assertEquals(0, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityDeleteCount());
+        assertEquals(2, statistics.getEntityUpdateCount());
+    }
+
+    // Touches everything the order response renders.
+    private int readGraph(List<Order> orders) {
+        int items = 0;
+        for (Order order : orders) {
+            for (OrderItem item : order.getItems()) {
+                assertNotNull(item.getProduct().getName());
+                assertNotNull(item.getProduct().getPrice());
+                items++;
+            }
+        }
+        return items;
+    }
+
+    private Order createOrder(int itemCount) {
+        Order order = Order.builder()
+                .buyerEmail("test@example.com")
+                .seatLetter("A")
+                .seatNumber(1)
+                .totalPrice(BigDecimal.TEN)
+                .items(new ArrayList<>())
+                .build();
+        for (int i = 0; i < itemCount; i++) {
+            Product product = entityManager.persist(Product.builder()
+                    .name("Product " + System.nanoTime() + "-" + i)
+                    .price(new BigDecimal("1.00"))
+                    .build());
+            order.getItems().add(OrderItem.builder()
+                    .order(order)
+                    .product(product)
+                    .quantity(1)
+                    .build());
+        }
+        return entityManager.persist(order);
+    }
+}
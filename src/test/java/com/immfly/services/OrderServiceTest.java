@@ -2,8 +2,9 @@ package com.immfly.services;
 
 import com.immfly.models.*;
 import com.immfly.repositories.OrderRepository;
-import com.immfly.repositories.ProductRepository;
+import com.immfly.exceptions.ConflictException;
 import com.immfly.exceptions.PaymentProcessingException;
+import com.immfly.exceptions.ResourceNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -16,6 +17,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,9 +26,6 @@ class OrderServiceTest {
     @Mock
     private OrderRepository orderRepository;
     
-    @Mock
-    private ProductRepository productRepository;
-    
     @Mock
     private PaymentService paymentService;
     
@@ -34,7 +33,7 @@ class OrderServiceTest {
 
     @BeforeEach
     void setUp() {
-        orderService = new OrderService(orderRepository, productRepository, paymentService);
+        orderService = new OrderService(orderRepository, paymentService);
     }
 
     @Test
@@ -94,7 +93,7 @@ class OrderServiceTest {
     }
 
     @Test
-    void processPayment_WithValidCard_ShouldUpdateOrderStatus() {
+    void processPayment_WithValidCard_ShouldUpdateOrderStatus() throws Exception {
         Order order = Order.builder()
                 .id(1L)
                 .status(OrderStatus.OPEN)
@@ -102,8 +101,9 @@ class OrderServiceTest {
                 .totalPrice(new BigDecimal("50.00"))
                 .build();
 
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
-        when(orderRepository.save(any(Order.class))).thenAnswer(i -> i.getArgument(0));
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.markPaymentPending(eq(1L), any(), any(), any(), any())).thenReturn(1);
+        when(orderRepository.completePayment(eq(1L), any(), eq("ONLINE_PAYMENT"), eq("valid-card-token"), any(), any())).thenReturn(1);
 
         Order result = orderService.processPayment(1L, "valid-card-token");
 
@@ -111,7 +111,8 @@ class OrderServiceTest {
         assertEquals(PaymentStatus.PAID, result.getPaymentStatus());
         assertNotNull(result.getPaymentDate());
         assertEquals("ONLINE_PAYMENT", result.getPaymentGateway());
-        verify(orderRepository).save(any(Order.class));
+        verify(paymentService).processPayment(new BigDecimal("50.00"), "valid-card-token");
+        verify(orderRepository, never()).save(any(Order.class));
     }
 
     @Test
@@ -123,13 +124,142 @@ class OrderServiceTest {
                 .totalPrice(new BigDecimal("50.00"))
                 .build();
 
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.markPaymentPending(eq(1L), any(), any(), any(), any())).thenReturn(1);
         doThrow(new Exception("Invalid card")).when(paymentService).processPayment(any(), any());
 
         assertThrows(PaymentProcessingException.class, () -> 
             orderService.processPayment(1L, "invalid-card-token")
         );
         assertEquals(PaymentStatus.PAYMENT_FAILED, order.getPaymentStatus());
+        verify(orderRepository).failPayment(eq(1L), any(), any(), any());
+        verify(orderRepository, never()).completePayment(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void processPayment_WithPaymentInProgress_ShouldNotCallGateway() throws Exception {
+        Order order = Order.builder()
+                .id(1L)
+                .status(OrderStatus.OPEN)
+                .paymentStatus(PaymentStatus.PENDING)
+                .totalPrice(new BigDecimal("50.00"))
+                .build();
+
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(order));
+
+        assertThrows(PaymentProcessingException.class, () -> 
+            orderService.processPayment(1L, "valid-card-token")
+        );
+        verify(orderRepository, never()).markPaymentPending(any(), any(), any(), any(), any());
+        verify(paymentService, never()).processPayment(any(), any());
+    }
+
+    @Test
+    void processPayment_WhenClaimedConcurrently_ShouldNotCallGateway() throws Exception {
+        Order order = Order.builder()
+                .id(1L)
+                .status(OrderStatus.OPEN)
+                .paymentStatus(PaymentStatus.PAYMENT_FAILED)
+                .totalPrice(new BigDecimal("50.00"))
+                .build();
+
+        Order claimed = Order.builder()
+                .id(1L)
+                .status(OrderStatus.OPEN)
+                .paymentStatus(PaymentStatus.PENDING)
+                .totalPrice(new BigDecimal("50.00"))
+                .build();
+
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(order), Optional.of(claimed));
+        when(orderRepository.markPaymentPending(eq(1L), any(), any(), any(), any())).thenReturn(0);
+
+        assertThrows(PaymentProcessingException.class, () -> 
+            orderService.processPayment(1L, "valid-card-token")
+        );
+        verify(paymentService, never()).processPayment(any(), any());
+    }
+
+    @Test
+    void processPayment_WhenOrderChangedBeforeClaim_ShouldThrowConflict() throws Exception {
+        Order order = Order.builder()
+                .id(1L)
+                .version(3L)
+                .status(OrderStatus.OPEN)
+                .paymentStatus(PaymentStatus.PAYMENT_FAILED)
+                .totalPrice(new BigDecimal("50.00"))
+                .build();
+
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.markPaymentPending(eq(1L), eq(3L), any(), any(), any())).thenReturn(0);
+
+        assertThrows(ConflictException.class, () -> 
+            orderService.processPayment(1L, "valid-card-token")
+        );
+        verify(paymentService, never()).processPayment(any(), any());
+    }
+
+    @Test
+    void updateOrder_WithPaymentInProgress_ShouldThrowException() {
+        Order existingOrder = Order.builder()
+                .id(1L)
+                .paymentStatus(PaymentStatus.PENDING)
+                .items(new ArrayList<>())
+                .build();
+
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(existingOrder));
+
+        assertThrows(PaymentProcessingException.class, () -> 
+            orderService.updateOrder(1L, Order.builder().items(new ArrayList<>()).build())
+        );
+    }
+
+    @Test
+    void updateOrder_WithPaidOrder_ShouldThrowConflict() {
+        Order existingOrder = Order.builder()
+                .id(1L)
+                .status(OrderStatus.FINISHED)
+                .paymentStatus(PaymentStatus.PAID)
+                .items(new ArrayList<>())
+                .build();
+
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(existingOrder));
+
+        assertThrows(ConflictException.class, () ->
+            orderService.updateOrder(1L, Order.builder().items(new ArrayList<>()).build())
+        );
+        verify(orderRepository, never()).flush();
+    }
+
+    @Test
+    void updateOrderItem_WithFinishedOrder_ShouldThrowConflict() {
+        Product product = Product.builder().id(1L).name("Test Product").price(new BigDecimal("10.00")).build();
+        Order existingOrder = Order.builder()
+                .id(1L)
+                .status(OrderStatus.FINISHED)
+                .paymentStatus(PaymentStatus.OFFLINE_PAYMENT)
+                .items(new ArrayList<>())
+                .build();
+
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(existingOrder));
+
+        assertThrows(ConflictException.class, () -> orderService.updateOrderItem(1L, product, 2));
+        assertTrue(existingOrder.getItems().isEmpty());
+        verify(orderRepository, never()).flush();
+    }
+
+    @Test
+    void updateOrderItem_WithCancelledOrder_ShouldThrowConflict() {
+        Product product = Product.builder().id(1L).name("Test Product").price(new BigDecimal("10.00")).build();
+        Order existingOrder = Order.builder()
+                .id(1L)
+                .status(OrderStatus.CANCELLED)
+                .paymentStatus(PaymentStatus.PAYMENT_FAILED)
+                .items(new ArrayList<>())
+                .build();
+
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(existingOrder));
+
+        assertThrows(ConflictException.class, () -> orderService.updateOrderItem(1L, product, 2));
     }
 
     @Test
@@ -141,7 +271,7 @@ class OrderServiceTest {
                 .totalPrice(new BigDecimal("50.00"))
                 .build();
 
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(order));
 
         assertThrows(PaymentProcessingException.class, () -> 
             orderService.processPayment(1L, "valid-card-token")
@@ -157,8 +287,8 @@ class OrderServiceTest {
                 .totalPrice(new BigDecimal("50.00"))
                 .build();
 
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
-        when(orderRepository.save(any(Order.class))).thenAnswer(i -> i.getArgument(0));
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.recordOfflinePayment(eq(1L), eq("OFFLINE_PAYMENT"), any(), any(), any())).thenReturn(1);
 
         Order result = orderService.processOfflinePayment(1L);
 
@@ -166,7 +296,85 @@ class OrderServiceTest {
         assertEquals(PaymentStatus.OFFLINE_PAYMENT, result.getPaymentStatus());
         assertNotNull(result.getPaymentDate());
         assertEquals("OFFLINE_PAYMENT", result.getPaymentGateway());
-        verify(orderRepository).save(any(Order.class));
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void processPayment_WithCancelledOrder_ShouldNotCallGateway() throws Exception {
+        Order order = Order.builder()
+                .id(1L)
+                .status(OrderStatus.CANCELLED)
+                .paymentStatus(PaymentStatus.PAYMENT_FAILED)
+                .totalPrice(new BigDecimal("50.00"))
+                .build();
+
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(order));
+
+        assertThrows(PaymentProcessingException.class, () -> 
+            orderService.processPayment(1L, "valid-card-token")
+        );
+        verify(orderRepository, never()).markPaymentPending(any(), any(), any(), any(), any());
+        verify(paymentService, never()).processPayment(any(), any());
+    }
+
+    @Test
+    void updateOrderStatus_WithAllowedTransition_ShouldUpdateConditionally() {
+        Order order = Order.builder()
+                .id(1L)
+                .status(OrderStatus.OPEN)
+                .paymentStatus(PaymentStatus.PAYMENT_FAILED)
+                .build();
+
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.transitionStatus(eq(1L), eq(OrderStatus.CANCELLED), any(), any())).thenReturn(1);
+
+        Order result = orderService.updateOrderStatus(1L, OrderStatus.CANCELLED);
+
+        assertEquals(OrderStatus.CANCELLED, result.getStatus());
+        verify(orderRepository).transitionStatus(eq(1L), eq(OrderStatus.CANCELLED),
+                eq(OrderStateMachine.sourcesOf(OrderStatus.CANCELLED)), any());
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void updateOrderStatus_FromTerminalStatus_ShouldThrowException() {
+        Order order = Order.builder()
+                .id(1L)
+                .status(OrderStatus.FINISHED)
+                .paymentStatus(PaymentStatus.PAID)
+                .build();
+
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(order));
+
+        assertThrows(ConflictException.class, () -> orderService.updateOrderStatus(1L, OrderStatus.OPEN));
+        verify(orderRepository, never()).transitionStatus(any(), any(), any(), any());
+    }
+
+    @Test
+    void updateOrderStatus_WhenChangedConcurrently_ShouldThrowException() {
+        Order order = Order.builder()
+                .id(1L)
+                .status(OrderStatus.OPEN)
+                .paymentStatus(PaymentStatus.PAYMENT_FAILED)
+                .build();
+
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.transitionStatus(eq(1L), eq(OrderStatus.DROPPED), any(), any())).thenReturn(0);
+
+        assertThrows(ConflictException.class, () -> orderService.updateOrderStatus(1L, OrderStatus.DROPPED));
+    }
+
+    @Test
+    void updateOrderStatus_ToFinished_ShouldRequirePayment() {
+        Order order = Order.builder()
+                .id(1L)
+                .status(OrderStatus.OPEN)
+                .paymentStatus(PaymentStatus.PAYMENT_FAILED)
+                .build();
+
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(order));
+
+        assertThrows(ConflictException.class, () -> orderService.updateOrderStatus(1L, OrderStatus.FINISHED));
     }
 
     @Test
@@ -195,6 +403,7 @@ class OrderServiceTest {
 
         Order existingOrder = Order.builder()
                 .id(1L)
+                .status(OrderStatus.OPEN)
                 .buyerEmail("test@example.com")
                 .seatLetter("A")
                 .seatNumber(1)
@@ -210,9 +419,7 @@ class OrderServiceTest {
                 .build();
         updatedOrder.getItems().add(item2);
 
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(existingOrder));
-        when(productRepository.findById(2L)).thenReturn(Optional.of(product2));
-        when(orderRepository.save(any(Order.class))).thenAnswer(i -> i.getArgument(0));
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(existingOrder));
 
         Order result = orderService.updateOrder(1L, updatedOrder);
 
@@ -243,6 +450,7 @@ class OrderServiceTest {
 
         Order existingOrder = Order.builder()
                 .id(1L)
+                .status(OrderStatus.OPEN)
                 .buyerEmail("test@example.com")
                 .seatLetter("A")
                 .seatNumber(1)
@@ -258,11 +466,130 @@ class OrderServiceTest {
         updatedOrder.getItems().add(item1);
         updatedOrder.getItems().add(item2);
 
-        when(orderRepository.findById(1L)).thenReturn(Optional.of(existingOrder));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(existingOrder));
 
         assertThrows(IllegalArgumentException.class, () -> 
             orderService.updateOrder(1L, updatedOrder)
         );
     }
-} 
\ No newline at end of file
+
+    @Test
+    void updateOrder_WithChangedQuantity_ShouldKeepExistingLines() {
+        Product product1 = Product.builder().id(1L).name("Test Product 1").price(new BigDecimal("10.00")).build();
+        Product product2 = Product.builder().id(2L).name("Test Product 2").price(new BigDecimal("20.00")).build();
+        Product product3 = Product.builder().id(3L).name("Test Product 3").price(new BigDecimal("5.00")).build();
+
+        OrderItem kept = OrderItem.builder().id(10L).product(product1).quantity(1).build();
+        OrderItem removed = OrderItem.builder().id(11L).product(product2).quantity(1).build();
+        Order existingOrder = Order.builder()
+                .id(1L)
+                .status(OrderStatus.OPEN)
+                .items(new ArrayList<>())
+                .build();
+        existingOrder.getItems().add(kept);
+        existingOrder.getItems().add(removed);
+
+        Order updatedOrder = Order.builder()
+                .buyerEmail("test@example.com")
+                .seatLetter("A")
+                .seatNumber(1)
+                .items(new ArrayList<>())
+                .build();
+        updatedOrder.getItems().add(OrderItem.builder().product(product1).quantity(3).build());
+        updatedOrder.getItems().add(OrderItem.builder().product(product3).quantity(2).build());
+
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(existingOrder));
+
+        Order result = orderService.updateOrder(1L, updatedOrder);
+
+        assertEquals(2, result.getItems().size());
+        assertSame(kept, result.getItems().get(0));
+        assertEquals(3, kept.getQuantity());
+        assertNull(result.getItems().get(1).getId());
+        assertSame(result, result.getItems().get(1).getOrder());
+        assertEquals(new BigDecimal("40.00"), result.getTotalPrice());
+        verify(orderRepository).flush();
+    }
+
+    @Test
+    void updateOrderItem_WithNewProduct_ShouldAddLine() {
+        Product product1 = Product.builder().id(1L).name("Test Product 1").price(new BigDecimal("10.00")).build();
+        Product product2 = Product.builder().id(2L).name("Test Product 2").price(new BigDecimal("20.00")).build();
+        Order existingOrder = Order.builder()
+                .id(1L)
+                .status(OrderStatus.OPEN)
+                .items(new ArrayList<>())
+                .build();
+        existingOrder.getItems().add(OrderItem.builder().id(10L).product(product1).quantity(1).build());
+
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(existingOrder));
+
+        Order result = orderService.updateOrderItem(1L, product2, 2);
+
+        assertEquals(2, result.getItems().size());
+        assertEquals(new BigDecimal("50.00"), result.getTotalPrice());
+    }
+
+    @Test
+    void updateOrderItem_WithZeroQuantity_ShouldRemoveLine() {
+        Product product1 = Product.builder().id(1L).name("Test Product 1").price(new BigDecimal("10.00")).build();
+        Product product2 = Product.builder().id(2L).name("Test Product 2").price(new BigDecimal("20.00")).build();
+        Order existingOrder = Order.builder()
+                .id(1L)
+                .status(OrderStatus.OPEN)
+                .items(new ArrayList<>())
+                .build();
+        existingOrder.getItems().add(OrderItem.builder().id(10L).product(product1).quantity(1).build());
+        existingOrder.getItems().add(OrderItem.builder().id(11L).product(product2).quantity(1).build());
+
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(existingOrder));
+
+        Order result = orderService.updateOrderItem(1L, product2, 0);
+
+        assertEquals(1, result.getItems().size());
+        assertEquals(new BigDecimal("10.00"), result.getTotalPrice());
+    }
+
+    @Test
+    void updateOrderItem_RemovingMissingLine_ShouldThrowException() {
+        Product product1 = Product.builder().id(1L).name("Test Product 1").price(new BigDecimal("10.00")).build();
+        Product product2 = Product.builder().id(2L).name("Test Product 2").price(new BigDecimal("20.00")).build();
+        Order existingOrder = Order.builder()
+                .id(1L)
+                .status(OrderStatus.OPEN)
+                .items(new ArrayList<>())
+                .build();
+        existingOrder.getItems().add(OrderItem.builder().id(10L).product(product1).quantity(1).build());
+
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(existingOrder));
+
+        assertThrows(ResourceNotFoundException.class, () -> orderService.updateOrderItem(1L, product2, 0));
+    }
+
+    @Test
+    void updateOrder_AfterCatalogPriceChange_ShouldKeepSnapshotPrice() {
+        Product product = Product.builder().id(1L).name("Test Product").price(new BigDecimal("12.00")).build();
+        OrderItem existingItem = OrderItem.builder().id(10L).product(product).quantity(1).unitPriceMinor(1000L).build();
+        Order existingOrder = Order.builder()
+                .id(1L)
+                .status(OrderStatus.OPEN)
+                .items(new ArrayList<>())
+                .build();
+        existingOrder.getItems().add(existingItem);
+
+        Order updatedOrder = Order.builder()
+                .buyerEmail("test@example.com")
+                .seatLetter("A")
+                .seatNumber(1)
+                .items(new ArrayList<>())
+                .build();
+        updatedOrder.getItems().add(OrderItem.builder().product(product).quantity(3).build());
+
+        when(orderRepository.findWithItemsById(1L)).thenReturn(Optional.of(existingOrder));
+
+        Order result = orderService.updateOrder(1L, updatedOrder);
+
+        assertEquals(1000L, existingItem.getUnitPriceMinor());
+        assertEquals(new BigDecimal("30.00"), result.getTotalPrice());
+    }
+}
@@ -0,0 +1,75 @@
+package com.immfly.services;
+
+import com.immfly.models.OrderStatus;
+import com.immfly.repositories.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderStatusMetricsTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private OrderStatusMetrics orderStatusMetrics;
+
+    @BeforeEach
+    void setUp() {
+        orderStatusMetrics = new OrderStatusMetrics(orderRepository);
+        orderStatusMetrics.bindTo(meterRegistry);
+    }
+
+    @Test
+    void bindTo_ShouldRegisterGaugePerStatusWithoutQuerying() {
+        assertEquals(OrderStatus.values().length, meterRegistry.get("orders.status").gauges().size());
+        assertEquals(0, gauge(OrderStatus.OPEN));
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void refresh_ShouldPublishCountsAndResetMissingStatuses() {
+        when(orderRepository.countByStatus()).thenReturn(
+                List.of(statusCount(OrderStatus.OPEN, 3), statusCount(OrderStatus.FINISHED, 5)),
+                List.of(statusCount(OrderStatus.FINISHED, 6)));
+
+        orderStatusMetrics.refresh();
+
+        assertEquals(3, gauge(OrderStatus.OPEN));
+        assertEquals(5, gauge(OrderStatus.FINISHED));
+        assertEquals(0, gauge(OrderStatus.CANCELLED));
+
+        orderStatusMetrics.refresh();
+
+        assertEquals(0, gauge(OrderStatus.OPEN));
+        assertEquals(6, gauge(OrderStatus.FINISHED));
+    }
+
+    private double gauge(OrderStatus status) {
+        return meterRegistry.get("orders.status").tag("status", status.name()).gauge().value();
+    }
+
+    private static OrderRepository.StatusCount statusCount(OrderStatus status, long count) {
+        return new OrderRepository.StatusCount() {
+            @Override
+            public OrderStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public long getCount() {
+                return count;
+            }
+        };
+    }
+}
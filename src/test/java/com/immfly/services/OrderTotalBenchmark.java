@@ -0,0 +1,74 @@
+package com.immfly.services;
+
+import com.immfly.models.OrderItem;
+import com.immfly.models.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the order total on unit price snapshots in minor units with the
+ * previous BigDecimal loop over product prices. Run with
+ * {@code mvn test -Pbenchmark -Djmh.benchmarks=OrderTotalBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderTotalBenchmark {
+
+    @Param({"1", "10", "50"})
+    public int itemCount;
+
+    private List<OrderItem> items;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        items = new ArrayList<>();
+        for (int i = 0; i < itemCount; i++) {
+            Product product = Product.builder()
+                    .id((long) i)
+                    .name("Product " + i)
+                    .price(BigDecimal.valueOf(100 + random.nextInt(5000), 2))
+                    .build();
+            OrderItem item = OrderItem.builder()
+                    .product(product)
+                    .quantity(1 + random.nextInt(5))
+                    .build();
+            item.snapshotUnitPrice();
+            items.add(item);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalLoop() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (OrderItem item : items) {
+            BigDecimal itemTotal = item.getProduct().getPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
+            total = total.add(itemTotal);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long minorUnitsLoop() {
+        return OrderCalculator.totalMinorUnits(items);
+    }
+}
@@ -0,0 +1,136 @@
+package com.immfly.services;
+
+import com.immfly.exceptions.PaymentProcessingException;
+import com.immfly.exceptions.ResourceNotFoundException;
+import com.immfly.exceptions.ServiceUnavailableException;
+import com.immfly.models.Order;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentAttemptServiceTest {
+
+    @Mock
+    private OrderService orderService;
+
+    private ExecutorService executor;
+
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newCachedThreadPool();
+        order = Order.builder()
+                .id(1L)
+                .totalPrice(new BigDecimal("50.00"))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void submit_ShouldReturnImmediatelyAndCompleteInBackground() throws Exception {
+        CountDownLatch gateway = new CountDownLatch(1);
+        when(orderService.startPayment(1L)).thenReturn(order);
+        when(orderService.chargePendingPayment(order, "card")).thenAnswer(i -> {
+            gateway.await();
+            return order;
+        });
+        PaymentAttemptService service = new PaymentAttemptService(orderService, executor, 10, Duration.ofMinutes(15));
+
+        PaymentAttempt attempt = service.submit(1L, "card");
+
+        assertEquals(PaymentAttemptStatus.PROCESSING, attempt.getStatus());
+        gateway.countDown();
+        attempt.getCompletion().get(5, TimeUnit.SECONDS);
+        assertEquals(PaymentAttemptStatus.SUCCEEDED, service.getAttempt(1L, attempt.getId()).getStatus());
+    }
+
+    @Test
+    void submit_WhenGatewayDeclines_ShouldRecordFailure() throws Exception {
+        when(orderService.startPayment(1L)).thenReturn(order);
+        when(orderService.chargePendingPayment(order, "card"))
+                .thenThrow(new PaymentProcessingException("Payment processing failed: Card declined"));
+        PaymentAttemptService service = new PaymentAttemptService(orderService, executor, 10, Duration.ofMinutes(15));
+
+        PaymentAttempt attempt = service.submit(1L, "card").getCompletion().get(5, TimeUnit.SECONDS);
+
+        assertEquals(PaymentAttemptStatus.FAILED, attempt.getStatus());
+        assertEquals("Payment processing failed: Card declined", attempt.getFailureReason());
+        assertNotNull(attempt.getCompletedAt());
+    }
+
+    @Test
+    void submit_WhenOrderCannotBeClaimed_ShouldFailWithoutQueueing() {
+        when(orderService.startPayment(1L)).thenThrow(new PaymentProcessingException("Order is already paid"));
+        PaymentAttemptService service = new PaymentAttemptService(orderService, executor, 1, Duration.ofMinutes(15));
+
+        assertThrows(PaymentProcessingException.class, () -> service.submit(1L, "card"));
+        verify(orderService, never()).chargePendingPayment(any(), any());
+
+        when(orderService.startPayment(2L)).thenReturn(order);
+        assertDoesNotThrow(() -> service.submit(2L, "card"));
+    }
+
+    @Test
+    void submit_WhenInFlightLimitReached_ShouldRejectWithoutClaimingOrder() throws Exception {
+        CountDownLatch charging = new CountDownLatch(1);
+        CountDownLatch gateway = new CountDownLatch(1);
+        when(orderService.startPayment(1L)).thenReturn(order);
+        when(orderService.chargePendingPayment(eq(order), any())).thenAnswer(i -> {
+            charging.countDown();
+            gateway.await();
+            return order;
+        });
+        PaymentAttemptService service = new PaymentAttemptService(orderService, executor, 1, Duration.ofMinutes(15));
+
+        service.submit(1L, "card");
+        assertTrue(charging.await(5, TimeUnit.SECONDS));
+
+        assertThrows(ServiceUnavailableException.class, () -> service.submit(2L, "card"));
+        verify(orderService, never()).startPayment(2L);
+        gateway.countDown();
+    }
+
+    @Test
+    void getAttempt_WithOtherOrderId_ShouldThrowException() {
+        when(orderService.startPayment(1L)).thenReturn(order);
+        PaymentAttemptService service = new PaymentAttemptService(orderService, executor, 10, Duration.ofMinutes(15));
+
+        PaymentAttempt attempt = service.submit(1L, "card");
+
+        assertThrows(ResourceNotFoundException.class, () -> service.getAttempt(2L, attempt.getId()));
+    }
+
+    @Test
+    void purgeCompletedAttempts_ShouldForgetAttemptsPastRetention() throws Exception {
+        when(orderService.startPayment(1L)).thenReturn(order);
+        PaymentAttemptService service = new PaymentAttemptService(orderService, executor, 10, Duration.ZERO);
+
+        PaymentAttempt attempt = service.submit(1L, "card");
+        attempt.getCompletion().get(5, TimeUnit.SECONDS);
+        Thread.sleep(5);
+        service.purgeCompletedAttempts();
+
+        assertThrows(ResourceNotFoundException.class, () -> service.getAttempt(1L, attempt.getId()));
+    }
+}
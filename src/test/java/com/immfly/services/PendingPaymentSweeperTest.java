@@ -0,0 +1,36 @@
+package com.immfly.services;
+
+import com.immfly.repositories.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PendingPaymentSweeperTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Test
+    void failStalePayments_ShouldOnlyReleaseAttemptsOlderThanTimeout() {
+        PendingPaymentSweeper sweeper = new PendingPaymentSweeper(orderRepository, Duration.ofMinutes(5));
+        when(orderRepository.failStalePayments(any(), any())).thenReturn(2);
+
+        int released = sweeper.failStalePayments();
+
+        ArgumentCaptor<LocalDateTime> startedBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> now = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(orderRepository).failStalePayments(startedBefore.capture(), now.capture());
+        assertEquals(2, released);
+        assertEquals(Duration.ofMinutes(5), Duration.between(startedBefore.getValue(), now.getValue()));
+    }
+}
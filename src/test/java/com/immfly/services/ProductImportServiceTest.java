@@ -0,0 +1,218 @@
+package com.immfly.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.immfly.dto.ProductImportResult;
+import com.immfly.exceptions.BadRequestException;
+import com.immfly.models.Category;
+import com.immfly.models.Product;
+import com.immfly.repositories.CategoryRepository;
+import com.immfly.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceTest {
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductNameIndex productNameIndex;
+    private ProductImportService importService;
+    private final Category drinks = Category.builder().id(1L).name("Drinks").build();
+
+    @BeforeEach
+    void setUp() {
+        productNameIndex = new ProductNameIndex(productRepository);
+        importService = new ProductImportService(productService, categoryRepository, productNameIndex,
+                new ObjectMapper(), 2, 10);
+        lenient().when(categoryRepository.findAll()).thenReturn(List.of(drinks));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importNdjson_ShouldWriteInChunks() {
+        when(productService.createProducts(any())).thenAnswer(i -> i.getArgument(0));
+
+        ProductImportResult result = importService.importNdjson(body("""
+                {"name":"Cola","price":2.5,"categoryId":1}
+                {"name":"Water","price":1.5,"category":"drinks"}
+
+                {"name":"Crisps","price":1.75}
+                """));
+
+        assertEquals(3, result.getImported());
+        assertEquals(0, result.getFailed());
+        ArgumentCaptor<List<Product>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(productService, times(2)).createProducts(chunks.capture());
+        assertEquals(List.of(2, 1), chunks.getAllValues().stream().map(List::size).toList());
+        Product water = chunks.getAllValues().get(0).get(1);
+        assertEquals(drinks, water.getCategory());
+        assertEquals(new BigDecimal("1.5"), water.getPrice());
+        verify(categoryRepository, times(1)).findAll();
+    }
+
+    @Test
+    void importNdjson_ShouldReportInvalidRowsAndImportTheRest() {
+        productNameIndex.productSaved(9L, null, "tea");
+        when(productService.createProducts(any())).thenAnswer(i -> i.getArgument(0));
+
+        ProductImportResult result = importService.importNdjson(body("""
+                {"name":"Cola","price":2.5}
+                {"name":"Cola","price":2.5}
+                not json
+                {"name":"Juice","price":-1}
+                {"name":"Coffee","price":2,"categoryId":7}
+                {"name":" TEA","price":2}
+                {"name":"","price":2}
+                {"name":"Water","price":1}
+                """));
+
+        assertEquals(2, result.getImported());
+        assertEquals(6, result.getFailed());
+        assertEquals(List.of(2L, 3L, 4L, 5L, 6L, 7L),
+                result.getErrors().stream().map(ProductImportResult.RowError::getLine).toList());
+        assertEquals("Product with name 'Cola' already exists", result.getErrors().get(0).getMessage());
+        assertEquals("Category not found: 7", result.getErrors().get(3).getMessage());
+        assertFalse(result.isErrorsTruncated());
+    }
+
+    @Test
+    void importCsv_ShouldMapColumnsByHeader() {
+        when(productService.createProducts(any())).thenAnswer(i -> i.getArgument(0));
+
+        ProductImportResult result = importService.importCsv(body("""
+                price,name,category,image_url
+                2.50,"Cola, 33cl",Drinks,
+                1.00,"The ""Big"" Bar",,https://example.com/bar.png
+                abc,Broken,,
+                """));
+
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals(4L, result.getErrors().get(0).getLine());
+        verify(productService).createProducts(argThat(products ->
+                products.get(0).getName().equals("Cola, 33cl")
+                        && products.get(0).getCategory() == drinks
+                        && products.get(1).getName().equals("The \"Big\" Bar")
+                        && products.get(1).getImageUrl().equals("https://example.com/bar.png")));
+    }
+
+    @Test
+    void importCsv_WithoutRequiredColumns_ShouldThrowException() {
+        assertThrows(BadRequestException.class, () -> importService.importCsv(body("name,category\nCola,Drinks\n")));
+        assertThrows(BadRequestException.class, () -> importService.importCsv(body("")));
+    }
+
+    @Test
+    void importNdjson_WhenChunkLosesNameToConcurrentWriter_ShouldRetryRowByRow() {
+        when(productService.createProducts(argThat(products -> products != null && products.size() == 2)))
+                .thenThrow(new IllegalArgumentException("A product name in this batch already exists"));
+        when(productService.createProducts(argThat(products -> products != null && products.size() == 1)))
+                .thenAnswer(i -> {
+                    List<Product> products = i.getArgument(0);
+                    if (products.get(0).getName().equals("Water")) {
+                        throw new IllegalArgumentException("Product with name 'Water' already exists");
+                    }
+                    return products;
+                });
+
+        ProductImportResult result = importService.importNdjson(body("""
+                {"name":"Cola","price":2.5}
+                {"name":"Water","price":1.5}
+                """));
+
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals(2L, result.getErrors().get(0).getLine());
+    }
+
+    @Test
+    void importNdjson_ShouldRejectRowsThatExceedTheSchema() {
+        when(productService.createProducts(any())).thenAnswer(i -> i.getArgument(0));
+
+        ProductImportResult result = importService.importNdjson(body("""
+                {"name":"%s","price":1}
+                {"name":"Cola","price":123456789}
+                {"name":"Water","price":1.999}
+                {"name":"Juice","price":2.50}
+                """.formatted("x".repeat(256))));
+
+        assertEquals(1, result.getImported());
+        assertEquals(List.of("Product name cannot be longer than 255 characters",
+                        "Price cannot exceed 99999999.99",
+                        "Price cannot have more than 2 decimal places"),
+                result.getErrors().stream().map(ProductImportResult.RowError::getMessage).toList());
+    }
+
+    @Test
+    void importNdjson_WhenDatabaseRejectsChunk_ShouldReportTheRowAndContinue() {
+        when(productService.createProducts(argThat(products -> products != null && products.size() == 2)))
+                .thenThrow(new DataIntegrityViolationException("value too long"));
+        when(productService.createProducts(argThat(products -> products != null && products.size() == 1)))
+                .thenAnswer(i -> {
+                    List<Product> products = i.getArgument(0);
+                    if (products.get(0).getName().equals("Water")) {
+                        throw new DataIntegrityViolationException("value too long");
+                    }
+                    return products;
+                });
+
+        ProductImportResult result = importService.importNdjson(body("""
+                {"name":"Cola","price":2.5}
+                {"name":"Water","price":1.5}
+                {"name":"Juice","price":1.5}
+                """));
+
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals(2L, result.getErrors().get(0).getLine());
+        assertEquals("Product could not be stored", result.getErrors().get(0).getMessage());
+    }
+
+    @Test
+    void importNdjson_ShouldCapReportedErrors() {
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < 15; i++) {
+            lines.append("{\"name\":\"\",\"price\":1}\n");
+        }
+
+        ProductImportResult result = importService.importNdjson(body(lines.toString()));
+
+        assertEquals(15, result.getFailed());
+        assertEquals(10, result.getErrors().size());
+        assertTrue(result.isErrorsTruncated());
+        verify(productService, never()).createProducts(any());
+    }
+
+    @Test
+    void parseCsvLine_ShouldHandleQuotes() {
+        assertEquals(List.of("a", "b,c", "d\"e", ""), ProductImportService.parseCsvLine("a,\"b,c\",\"d\"\"e\","));
+        assertThrows(IllegalArgumentException.class, () -> ProductImportService.parseCsvLine("\"open"));
+    }
+
+    private static InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,67 @@
+package com.immfly.services;
+
+import com.immfly.models.Category;
+import com.immfly.models.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search latency over a generated catalog of 50,000 products whose names draw
+ * from only 30 words, so every term matches thousands of products. Run with
+ * {@code mvn test -Pbenchmark -Djmh.benchmarks=ProductSearchBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductSearchBenchmark {
+    private static final List<String> WORDS = List.of(
+            "coca", "cola", "zero", "orange", "juice", "apple", "water", "sparkling", "still", "coffee",
+            "espresso", "latte", "tea", "green", "chocolate", "bar", "crisps", "salted", "cheese", "sandwich",
+            "ham", "chicken", "salad", "muffin", "cookie", "almond", "peanut", "beer", "wine", "red");
+
+    @Param({"coca", "chocolate bar", "chocloate", "sandw chick"})
+    public String query;
+
+    private ProductSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        index = new ProductSearchIndex(null, null);
+        for (long c = 1; c <= 50; c++) {
+            index.categoryChanged(Category.builder().id(c).name(WORDS.get(random.nextInt(WORDS.size())) + " " + c).build());
+        }
+        for (long id = 1; id <= 50_000; id++) {
+            String name = WORDS.get(random.nextInt(WORDS.size())) + " " + WORDS.get(random.nextInt(WORDS.size()))
+                    + " " + WORDS.get(random.nextInt(WORDS.size())) + " " + id;
+            index.productChanged(Product.builder()
+                    .id(id)
+                    .name(name)
+                    .price(BigDecimal.ONE)
+                    .category(Category.builder().id(1 + id % 50).build())
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public Object search() {
+        return index.search(query, 20);
+    }
+}
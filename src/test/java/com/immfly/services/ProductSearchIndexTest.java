@@ -0,0 +1,183 @@
+package com.immfly.services;
+
+import com.immfly.dto.ProductDTO;
+import com.immfly.exceptions.BadRequestException;
+import com.immfly.models.Category;
+import com.immfly.models.Product;
+import com.immfly.repositories.CategoryRepository;
+import com.immfly.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSearchIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    private ProductSearchIndex index;
+    private Category drinks;
+    private Category snacks;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(productRepository, categoryRepository);
+        drinks = Category.builder().id(1L).name("Drinks").build();
+        snacks = Category.builder().id(2L).name("Snacks").build();
+        index.categoryChanged(drinks);
+        index.categoryChanged(snacks);
+        index.productChanged(product(1L, "Coca-Cola", drinks));
+        index.productChanged(product(2L, "Coca-Cola Zero", drinks));
+        index.productChanged(product(3L, "Chocolate Bar", snacks));
+        index.productChanged(product(4L, "Café con leche", drinks));
+    }
+
+    @Test
+    void search_ShouldMatchPrefixes() {
+        assertEquals(List.of(1L, 2L), ids(index.search("coca", 20)));
+        assertEquals(List.of(3L), ids(index.search("choc", 20)));
+    }
+
+    @Test
+    void search_ShouldRequireEveryTerm() {
+        assertEquals(List.of(2L), ids(index.search("cola zer", 20)));
+        assertTrue(index.search("cola bar", 20).isEmpty());
+    }
+
+    @Test
+    void search_ShouldTolerateTypos() {
+        assertEquals(List.of(3L), ids(index.search("chocloate", 20)));
+        assertEquals(List.of(3L), ids(index.search("chocolte bar", 20)));
+    }
+
+    @Test
+    void search_ShouldIgnoreCaseAndAccents() {
+        assertEquals(List.of(4L), ids(index.search("CAFE", 20)));
+    }
+
+    @Test
+    void search_ShouldMatchCategoryNamesBelowProductNames() {
+        index.productChanged(product(5L, "Snacks Mix", drinks));
+
+        List<ProductDTO> results = index.search("snacks", 20);
+
+        assertEquals(List.of(5L, 3L), ids(results));
+    }
+
+    @Test
+    void search_ShouldRankExactMatchesFirstAndApplyLimit() {
+        index.productChanged(product(6L, "Colacao", drinks));
+
+        assertEquals(List.of(1L, 2L, 6L), ids(index.search("cola", 20)));
+        assertEquals(List.of(1L), ids(index.search("cola", 1)));
+    }
+
+    @Test
+    void productChanged_ShouldReplaceOldTokens() {
+        index.productChanged(product(3L, "Crisps", snacks));
+
+        assertTrue(index.search("chocolate", 20).isEmpty());
+        assertEquals(List.of(3L), ids(index.search("crisps", 20)));
+    }
+
+    @Test
+    void productDeleted_ShouldRemoveFromResults() {
+        index.productDeleted(1L);
+
+        assertEquals(List.of(2L), ids(index.search("coca", 20)));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void productChanged_WhenReindexingSharedPostings_ShouldKeepEveryOtherProduct() {
+        for (long id = 10; id < 60; id++) {
+            index.productChanged(product(id, "Orange Juice " + id, drinks));
+        }
+        for (long id = 10; id < 60; id++) {
+            if (id % 3 == 0) {
+                index.productDeleted(id);
+            } else if (id % 3 == 1) {
+                index.productChanged(product(id, "Orange Juice " + id, snacks));
+            } else {
+                index.productChanged(product(id, "Orange Juice " + id, drinks));
+            }
+        }
+
+        List<Long> kept = LongStream.range(10, 60).filter(id -> id % 3 != 0).boxed().toList();
+        List<Long> moved = kept.stream().filter(id -> id % 3 == 1).toList();
+        assertEquals(kept, ids(index.search("juice", 100)).stream().sorted().toList());
+        assertEquals(moved, ids(index.search("orange snacks", 100)).stream().sorted().toList());
+        assertEquals(List.of(2L), ids(index.search("coca zero drinks", 100)));
+    }
+
+    @Test
+    void categoryChanged_ShouldReindexCategoryName() {
+        index.categoryChanged(Category.builder().id(2L).name("Sweets").build());
+
+        assertEquals(List.of(3L), ids(index.search("sweets", 20)));
+        assertTrue(index.search("snacks", 20).isEmpty());
+    }
+
+    @Test
+    void productChanged_InTransaction_ShouldApplyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.productChanged(product(7L, "Water", drinks));
+
+            assertTrue(index.search("water", 20).isEmpty());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(List.of(7L), ids(index.search("water", 20)));
+    }
+
+    @Test
+    void rebuild_ShouldLoadCatalog() {
+        index = new ProductSearchIndex(productRepository, categoryRepository);
+        when(categoryRepository.findAll()).thenReturn(List.of(drinks));
+        when(productRepository.findAll()).thenReturn(List.of(product(1L, "Orange Juice", drinks)));
+
+        index.rebuild();
+
+        assertEquals(List.of(1L), ids(index.search("drinks juice", 20)));
+    }
+
+    @Test
+    void search_WithInvalidQuery_ShouldThrowException() {
+        assertThrows(BadRequestException.class, () -> index.search(" - ", 20));
+        assertThrows(BadRequestException.class, () -> index.search("cola", 0));
+        assertThrows(BadRequestException.class, () -> index.search("cola", ProductSearchIndex.MAX_LIMIT + 1));
+    }
+
+    @Test
+    void editDistance_ShouldCountTranspositionAsOneEdit() {
+        assertEquals(1, ProductSearchIndex.editDistance("chocloate", "chocolate", 2));
+        assertEquals(1, ProductSearchIndex.editDistance("water", "wafter", 2));
+        assertEquals(3, ProductSearchIndex.editDistance("abc", "xyz", 2));
+    }
+
+    private static Product product(Long id, String name, Category category) {
+        return Product.builder().id(id).name(name).price(new BigDecimal("1.00")).category(category).build();
+    }
+
+    private static List<Long> ids(List<ProductDTO> products) {
+        return products.stream().map(ProductDTO::getId).toList();
+    }
+}
@@ -1,20 +1,29 @@
 package com.immfly.services;
 
+import com.immfly.dto.CatalogChange.Operation;
+import com.immfly.dto.PriceUpdateRequest.PriceChange;
+import com.immfly.exceptions.BadRequestException;
 import com.immfly.models.Product;
 import com.immfly.models.Category;
 import com.immfly.repositories.ProductRepository;
 import com.immfly.repositories.CategoryRepository;
 import com.immfly.exceptions.ResourceNotFoundException;
+import com.immfly.services.cache.CatalogVersion;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -29,11 +38,22 @@ class ProductServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private CatalogChangeLog catalogChangeLog;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    private final CatalogVersion catalogVersion = new CatalogVersion();
+
+    private ProductNameIndex productNameIndex;
+
     private ProductService productService;
 
     @BeforeEach
     void setUp() {
-        productService = new ProductService(productRepository, categoryRepository);
+        productNameIndex = new ProductNameIndex(productRepository);
+        productService = new ProductService(productRepository, categoryRepository, catalogVersion, catalogChangeLog, productSearchIndex, productNameIndex);
     }
 
     @Test
@@ -92,15 +112,14 @@ class ProductServiceTest {
                 .price(new BigDecimal("15.00"))
                 .build();
 
-        when(productRepository.save(any(Product.class))).thenAnswer(i -> i.getArgument(0));
-        when(productRepository.findByNameIgnoreCase(any())).thenReturn(List.of());
+        when(productRepository.saveAndFlush(any(Product.class))).thenAnswer(i -> i.getArgument(0));
 
         Product result = productService.createProduct(product);
 
         assertNotNull(result);
         assertEquals("New Product", result.getName());
         assertEquals(new BigDecimal("15.00"), result.getPrice());
-        verify(productRepository).save(any(Product.class));
+        verify(productRepository).saveAndFlush(any(Product.class));
     }
 
     @Test
@@ -116,8 +135,7 @@ class ProductServiceTest {
                 .category(category)
                 .build();
 
-        when(productRepository.save(any(Product.class))).thenAnswer(i -> i.getArgument(0));
-        when(productRepository.findByNameIgnoreCase(any())).thenReturn(List.of());
+        when(productRepository.saveAndFlush(any(Product.class))).thenAnswer(i -> i.getArgument(0));
         when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
 
         Product result = productService.createProduct(product);
@@ -126,7 +144,7 @@ class ProductServiceTest {
         assertEquals("New Product", result.getName());
         assertEquals(new BigDecimal("15.00"), result.getPrice());
         assertEquals(category, result.getCategory());
-        verify(productRepository).save(any(Product.class));
+        verify(productRepository).saveAndFlush(any(Product.class));
     }
 
     @Test
@@ -143,8 +161,7 @@ class ProductServiceTest {
                 .build();
 
         when(productRepository.findById(1L)).thenReturn(Optional.of(existingProduct));
-        when(productRepository.save(any(Product.class))).thenAnswer(i -> i.getArgument(0));
-        when(productRepository.findByNameIgnoreCase(any())).thenReturn(List.of());
+        when(productRepository.saveAndFlush(any(Product.class))).thenAnswer(i -> i.getArgument(0));
 
         Product result = productService.updateProduct(1L, updatedProduct);
 
@@ -152,7 +169,7 @@ class ProductServiceTest {
         assertEquals(1L, result.getId());
         assertEquals("New Name", result.getName());
         assertEquals(new BigDecimal("20.00"), result.getPrice());
-        verify(productRepository).save(any(Product.class));
+        verify(productRepository).saveAndFlush(any(Product.class));
     }
 
     @Test
@@ -175,8 +192,7 @@ class ProductServiceTest {
                 .build();
 
         when(productRepository.findById(1L)).thenReturn(Optional.of(existingProduct));
-        when(productRepository.save(any(Product.class))).thenAnswer(i -> i.getArgument(0));
-        when(productRepository.findByNameIgnoreCase(any())).thenReturn(List.of());
+        when(productRepository.saveAndFlush(any(Product.class))).thenAnswer(i -> i.getArgument(0));
         when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
 
         Product result = productService.updateProduct(1L, updatedProduct);
@@ -186,7 +202,7 @@ class ProductServiceTest {
         assertEquals("New Name", result.getName());
         assertEquals(new BigDecimal("20.00"), result.getPrice());
         assertEquals(category, result.getCategory());
-        verify(productRepository).save(any(Product.class));
+        verify(productRepository).saveAndFlush(any(Product.class));
     }
 
     @Test
@@ -257,4 +273,296 @@ class ProductServiceTest {
         assertEquals(category, result.get(0).getCategory());
         assertEquals(category, result.get(1).getCategory());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void getProductsByCategories_ShouldQueryAllCategoriesAtOnce() {
+        Product product = Product.builder()
+                .id(1L)
+                .name("Product 1")
+                .price(new BigDecimal("10.00"))
+                .build();
+
+        when(productRepository.findByCategoryIdIn(Set.of(1L, 2L))).thenReturn(List.of(product));
+
+        assertEquals(List.of(product), productService.getProductsByCategories(Set.of(1L, 2L)));
+        assertTrue(productService.getProductsByCategories(Set.of()).isEmpty());
+        verify(productRepository, times(1)).findByCategoryIdIn(any());
+    }
+
+    @Test
+    void getProductById_WhenCached_ShouldNotQueryRepositoryAgain() {
+        Product product = Product.builder()
+                .id(1L)
+                .name("Test Product")
+                .price(new BigDecimal("10.00"))
+                .build();
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        productService.getProductById(1L);
+        Product result = productService.getProductById(1L);
+
+        assertEquals(product, result);
+        verify(productRepository, times(1)).findById(1L);
+        assertEquals(1, productService.getCacheStats().get("products").getHits());
+    }
+
+    @Test
+    void getAllProducts_AfterCreate_ShouldReloadFromRepository() {
+        Product existing = Product.builder()
+                .id(1L)
+                .name("Existing")
+                .price(new BigDecimal("10.00"))
+                .build();
+
+        Product created = Product.builder()
+                .name("Created")
+                .price(new BigDecimal("15.00"))
+                .build();
+
+        when(productRepository.findAll())
+                .thenReturn(List.of(existing))
+                .thenReturn(List.of(existing, created));
+        when(productRepository.saveAndFlush(any(Product.class))).thenAnswer(i -> i.getArgument(0));
+
+        assertEquals(1, productService.getAllProducts().size());
+        assertEquals(1, productService.getAllProducts().size());
+        productService.createProduct(created);
+
+        assertEquals(2, productService.getAllProducts().size());
+        verify(productRepository, times(2)).findAll();
+    }
+
+    @Test
+    void updateProduct_ShouldEvictOnlyUpdatedProduct() {
+        Product product1 = Product.builder()
+                .id(1L)
+                .name("Product 1")
+                .price(new BigDecimal("10.00"))
+                .build();
+
+        Product product2 = Product.builder()
+                .id(2L)
+                .name("Product 2")
+                .price(new BigDecimal("20.00"))
+                .build();
+
+        Product updatedProduct = Product.builder()
+                .name("Product 1 Updated")
+                .price(new BigDecimal("12.00"))
+                .build();
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product1));
+        when(productRepository.findById(2L)).thenReturn(Optional.of(product2));
+        when(productRepository.saveAndFlush(any(Product.class))).thenAnswer(i -> i.getArgument(0));
+
+        productService.getProductById(1L);
+        productService.getProductById(2L);
+        productService.updateProduct(1L, updatedProduct);
+        productService.getProductById(1L);
+        productService.getProductById(2L);
+
+        verify(productRepository, times(3)).findById(1L);
+        verify(productRepository, times(1)).findById(2L);
+    }
+
+    @Test
+    void getProductsByIds_ShouldResolveMissesInSingleLookup() {
+        Product product1 = Product.builder()
+                .id(1L)
+                .name("Product 1")
+                .price(new BigDecimal("10.00"))
+                .build();
+
+        Product product2 = Product.builder()
+                .id(2L)
+                .name("Product 2")
+                .price(new BigDecimal("20.00"))
+                .build();
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product1));
+        when(productRepository.findAllById(Set.of(2L))).thenReturn(List.of(product2));
+
+        productService.getProductById(1L);
+        Map<Long, Product> result = productService.getProductsByIds(List.of(1L, 2L, 2L));
+
+        assertEquals(2, result.size());
+        assertEquals(product1, result.get(1L));
+        assertEquals(product2, result.get(2L));
+        verify(productRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    void getProductsByIds_WithMissingIds_ShouldListAllOfThem() {
+        Product product1 = Product.builder()
+                .id(1L)
+                .name("Product 1")
+                .price(new BigDecimal("10.00"))
+                .build();
+
+        when(productRepository.findAllById(any())).thenReturn(List.of(product1));
+
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () ->
+            productService.getProductsByIds(List.of(7L, 1L, 3L))
+        );
+        assertEquals("Products not found with ids: [3, 7]", exception.getMessage());
+    }
+
+    @Test
+    void deleteProduct_ShouldBumpCatalogVersion() {
+        Product product = Product.builder()
+                .id(1L)
+                .name("Test Product")
+                .build();
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        String etag = catalogVersion.etag();
+
+        productService.deleteProduct(1L);
+
+        assertNotEquals(etag, catalogVersion.etag());
+    }
+
+    @Test
+    void deleteProduct_WithInvalidId_ShouldKeepCatalogVersion() {
+        when(productRepository.findById(999L)).thenReturn(Optional.empty());
+        long version = catalogVersion.current();
+
+        assertThrows(ResourceNotFoundException.class, () -> productService.deleteProduct(999L));
+
+        assertEquals(version, catalogVersion.current());
+    }
+
+    @Test
+    void updateProduct_KeepingItsName_ShouldUpdateProduct() {
+        Product existingProduct = Product.builder()
+                .id(1L)
+                .name("Cola")
+                .price(new BigDecimal("2.00"))
+                .build();
+        productNameIndex.productSaved(1L, null, "cola");
+
+        Product updatedProduct = Product.builder()
+                .name("Cola")
+                .price(new BigDecimal("2.50"))
+                .build();
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(existingProduct));
+        when(productRepository.saveAndFlush(any(Product.class))).thenAnswer(i -> i.getArgument(0));
+
+        Product result = productService.updateProduct(1L, updatedProduct);
+
+        assertEquals(new BigDecimal("2.50"), result.getPrice());
+        assertEquals(1L, productNameIndex.ownerOf("cola"));
+    }
+
+    @Test
+    void createProduct_WithNameOfAnotherProduct_ShouldThrowException() {
+        productNameIndex.productSaved(1L, null, "cola");
+
+        Product product = Product.builder()
+                .name(" COLA ")
+                .price(new BigDecimal("2.00"))
+                .build();
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+            productService.createProduct(product)
+        );
+        assertEquals("Product with name ' COLA ' already exists", exception.getMessage());
+        verify(productRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void createProduct_WhenUniqueIndexRejectsName_ShouldThrowAlreadyExists() {
+        Product product = Product.builder()
+                .name("Cola")
+                .price(new BigDecimal("2.00"))
+                .build();
+        ConstraintViolationException violation = new ConstraintViolationException("duplicate",
+                new SQLException("duplicate"), "PUBLIC.UK_PRODUCT_NORMALIZED_NAME_INDEX_1");
+
+        when(productRepository.saveAndFlush(any(Product.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate", violation));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+            productService.createProduct(product)
+        );
+        assertTrue(exception.getMessage().endsWith("already exists"));
+    }
+
+    @Test
+    void renameProduct_ShouldReleaseOldName() {
+        Product existingProduct = Product.builder()
+                .id(1L)
+                .name("Cola")
+                .price(new BigDecimal("2.00"))
+                .build();
+        productNameIndex.productSaved(1L, null, "cola");
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(existingProduct));
+        when(productRepository.saveAndFlush(any(Product.class))).thenAnswer(i -> i.getArgument(0));
+
+        productService.updateProduct(1L, Product.builder().name("Pepsi").price(new BigDecimal("2.00")).build());
+
+        assertNull(productNameIndex.ownerOf("cola"));
+        assertEquals(1L, productNameIndex.ownerOf("pepsi"));
+    }
+
+    @Test
+    void updatePrices_ShouldRunOneUpdatePerCategoryAndBumpVersionOnce() {
+        Category drinks = Category.builder().id(1L).name("Drinks").build();
+        Category snacks = Category.builder().id(2L).name("Snacks").build();
+        Product cola = Product.builder().id(1L).name("Cola").price(new BigDecimal("2.20")).category(drinks).build();
+        when(categoryRepository.findAllById(any())).thenReturn(List.of(drinks, snacks));
+        when(productRepository.scalePriceByCategory(1L, new BigDecimal("1.10"))).thenReturn(3);
+        when(productRepository.setPriceByCategory(2L, new BigDecimal("1.50"))).thenReturn(2);
+        when(productRepository.findByCategoryIdIn(Set.of(1L, 2L))).thenReturn(List.of(cola));
+        long version = catalogVersion.current();
+
+        int updated = productService.updatePrices(List.of(
+                PriceChange.builder().categoryId(1L).percentage(new BigDecimal("10")).build(),
+                PriceChange.builder().categoryId(2L).price(new BigDecimal("1.50")).build()));
+
+        assertEquals(5, updated);
+        assertEquals(version + 1, catalogVersion.current());
+        verify(productRepository, never()).saveAll(any());
+        verify(catalogChangeLog).productChanged(cola, Operation.UPDATED);
+        verify(productSearchIndex).productChanged(cola);
+    }
+
+    @Test
+    void updatePrices_WhenNothingMatches_ShouldKeepCatalogVersion() {
+        when(categoryRepository.findAllById(any())).thenReturn(List.of(Category.builder().id(1L).build()));
+        long version = catalogVersion.current();
+
+        int updated = productService.updatePrices(List.of(
+                PriceChange.builder().categoryId(1L).price(BigDecimal.ONE).build()));
+
+        assertEquals(0, updated);
+        assertEquals(version, catalogVersion.current());
+        verify(productRepository, never()).findByCategoryIdIn(any());
+    }
+
+    @Test
+    void updatePrices_WithInvalidChange_ShouldThrowBadRequest() {
+        assertThrows(BadRequestException.class, () -> productService.updatePrices(List.of()));
+        assertThrows(BadRequestException.class, () -> productService.updatePrices(List.of(
+                PriceChange.builder().categoryId(1L).price(BigDecimal.ONE).percentage(BigDecimal.ONE).build())));
+        assertThrows(BadRequestException.class, () -> productService.updatePrices(List.of(
+                PriceChange.builder().categoryId(1L).percentage(new BigDecimal("-101")).build())));
+        assertThrows(BadRequestException.class, () -> productService.updatePrices(List.of(
+                PriceChange.builder().categoryId(1L).percentage(new BigDecimal("7.12345")).build())));
+        assertThrows(BadRequestException.class, () -> productService.updatePrices(List.of(
+                PriceChange.builder().categoryId(1L).price(BigDecimal.ONE).build(),
+                PriceChange.builder().categoryId(1L).percentage(BigDecimal.TEN).build())));
+        verifyNoInteractions(categoryRepository);
+    }
+
+    @Test
+    void updatePrices_WithUnknownCategory_ShouldThrowNotFound() {
+        when(categoryRepository.findAllById(any())).thenReturn(List.of());
+
+        assertThrows(ResourceNotFoundException.class, () -> productService.updatePrices(List.of(
+                PriceChange.builder().categoryId(9L).price(BigDecimal.ONE).build())));
+        verify(productRepository, never()).setPriceByCategory(any(), any());
+    }
+}
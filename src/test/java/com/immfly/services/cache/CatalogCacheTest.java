@@ -0,0 +1,80 @@
+package com.immfly.services.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogCacheTest {
+
+    @Test
+    void get_ShouldLoadOnceAndServeFromMemory() {
+        CatalogCache<Long, String> cache = new CatalogCache<>(10);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("value-1", cache.get(1L, key -> "value-" + loads.incrementAndGet()));
+        assertEquals("value-1", cache.get(1L, key -> "value-" + loads.incrementAndGet()));
+
+        CacheStats stats = cache.getStats();
+        assertEquals(1, loads.get());
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getSize());
+    }
+
+    @Test
+    void get_WithNullValue_ShouldNotCache() {
+        CatalogCache<Long, String> cache = new CatalogCache<>(10);
+
+        assertNull(cache.get(1L, key -> null));
+        assertNull(cache.get(1L, key -> null));
+
+        assertEquals(2, cache.getStats().getMisses());
+        assertEquals(0, cache.getStats().getSize());
+    }
+
+    @Test
+    void get_WhenFull_ShouldEvictLeastRecentlyUsed() {
+        CatalogCache<Long, String> cache = new CatalogCache<>(2);
+        cache.get(1L, key -> "one");
+        cache.get(2L, key -> "two");
+        cache.get(1L, key -> "one");
+        cache.get(3L, key -> "three");
+
+        assertEquals("one", cache.get(1L, key -> "reloaded"));
+        assertEquals("reloaded", cache.get(2L, key -> "reloaded"));
+        assertEquals(2, cache.getStats().getEvictions());
+        assertEquals(2, cache.getStats().getSize());
+    }
+
+    @Test
+    void evict_ShouldForceReload() {
+        CatalogCache<Long, String> cache = new CatalogCache<>(10);
+        cache.get(1L, key -> "old");
+        cache.get(2L, key -> "kept");
+
+        cache.evict(1L);
+
+        assertEquals("new", cache.get(1L, key -> "new"));
+        assertEquals("kept", cache.get(2L, key -> "reloaded"));
+    }
+
+    @Test
+    void get_WhenEvictedDuringLoad_ShouldNotStoreStaleValue() {
+        CatalogCache<Long, String> cache = new CatalogCache<>(10);
+
+        String loaded = cache.get(1L, key -> {
+            cache.evictAll();
+            return "stale";
+        });
+
+        assertEquals("stale", loaded);
+        assertEquals(0, cache.getStats().getSize());
+    }
+
+    @Test
+    void constructor_WithInvalidSize_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> new CatalogCache<Long, String>(0));
+    }
+}
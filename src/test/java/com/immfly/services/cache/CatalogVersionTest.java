@@ -0,0 +1,49 @@
+package com.immfly.services.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogVersionTest {
+
+    @Test
+    void bump_ShouldChangeEtag() {
+        CatalogVersion version = new CatalogVersion();
+        String etag = version.etag();
+
+        version.bump();
+
+        assertEquals(1, version.current());
+        assertNotEquals(etag, version.etag());
+        assertTrue(version.etag().startsWith("\"") && version.etag().endsWith("\""));
+    }
+
+    @Test
+    void bump_InTransaction_ShouldBumpAgainAfterCompletion() {
+        CatalogVersion version = new CatalogVersion();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            version.bump();
+            String uncommitted = version.etag();
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+            assertNotEquals(uncommitted, version.etag());
+            assertEquals(2, version.current());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void etag_FromAnotherInstance_ShouldNotMatchAfterRestart() throws InterruptedException {
+        CatalogVersion before = new CatalogVersion();
+        Thread.sleep(2);
+        CatalogVersion after = new CatalogVersion();
+
+        assertNotEquals(before.etag(), after.etag());
+    }
+}
@@ -0,0 +1,52 @@
+package com.immfly.services.cache;
+
+import com.immfly.dto.CategoryTreeNode;
+import com.immfly.models.Category;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CategoryTreeTest {
+
+    private final Category drinks = Category.builder().id(1L).name("Drinks").build();
+    private final Category hot = Category.builder().id(2L).name("Hot").parent(drinks).build();
+    private final Category coffee = Category.builder().id(3L).name("Coffee").parent(hot).build();
+    private final Category cold = Category.builder().id(4L).name("Cold").parent(drinks).build();
+    private final Category snacks = Category.builder().id(5L).name("Snacks").build();
+
+    @Test
+    void of_ShouldBuildHierarchyFromFlatList() {
+        CategoryTree tree = CategoryTree.of(List.of(coffee, snacks, cold, hot, drinks));
+
+        List<CategoryTreeNode> roots = tree.getRoots();
+        assertEquals(List.of("Drinks", "Snacks"), roots.stream().map(CategoryTreeNode::getName).toList());
+        CategoryTreeNode drinksNode = roots.get(0);
+        assertEquals(List.of("Hot", "Cold"), drinksNode.getChildren().stream().map(CategoryTreeNode::getName).toList());
+        assertEquals("Coffee", drinksNode.getChildren().get(0).getChildren().get(0).getName());
+    }
+
+    @Test
+    void subtreeIds_ShouldIncludeCategoryAndAllDescendants() {
+        CategoryTree tree = CategoryTree.of(List.of(drinks, hot, coffee, cold, snacks));
+
+        assertEquals(Set.of(1L, 2L, 3L, 4L), tree.subtreeIds(1L));
+        assertEquals(Set.of(2L, 3L), tree.subtreeIds(2L));
+        assertEquals(Set.of(5L), tree.subtreeIds(5L));
+        assertTrue(tree.subtreeIds(99L).isEmpty());
+        assertFalse(tree.contains(99L));
+    }
+
+    @Test
+    void subtreeIds_WithCycle_ShouldTerminate() {
+        Category a = Category.builder().id(1L).name("A").build();
+        Category b = Category.builder().id(2L).name("B").parent(a).build();
+        a.setParent(b);
+
+        CategoryTree tree = CategoryTree.of(List.of(a, b));
+
+        assertTrue(tree.getRoots().isEmpty());
+        assertEquals(Set.of(1L, 2L), tree.subtreeIds(1L));
+    }
+}
@@ -0,0 +1,62 @@
+package com.immfly.services.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionCallbacksTest {
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void afterCommit_WithoutTransaction_ShouldRunImmediately() {
+        TransactionCallbacks.afterCommit(runs::incrementAndGet);
+
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void afterCommit_InTransaction_ShouldRunOnlyOnCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionCallbacks.afterCommit(runs::incrementAndGet);
+        assertEquals(0, runs.get());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void afterCommit_WhenRolledBack_ShouldNotRun() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionCallbacks.afterCommit(runs::incrementAndGet);
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    void nowAndAfterCompletion_InTransaction_ShouldRunNowAndAfterRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionCallbacks.nowAndAfterCompletion(runs::incrementAndGet);
+        assertEquals(1, runs.get());
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertEquals(2, runs.get());
+    }
+}
@@ -0,0 +1,188 @@
+package com.immfly.services.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.immfly.exceptions.BadRequestException;
+import com.immfly.exceptions.PaymentProcessingException;
+import com.immfly.exceptions.UnprocessableEntityException;
+import com.immfly.models.IdempotencyRecord;
+import com.immfly.repositories.IdempotencyRecordRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyRecordRepository repository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private IdempotencyService service(Duration ttl, int maxEntries, boolean persistent) {
+        return new IdempotencyService(repository, objectMapper, ttl, maxEntries, Duration.ofSeconds(5), persistent);
+    }
+
+    @Test
+    void execute_WithoutKey_ShouldAlwaysRunAction() {
+        IdempotencyService service = service(Duration.ofHours(1), 10, false);
+        AtomicInteger calls = new AtomicInteger();
+
+        service.execute(null, "POST /api/orders", "body", () -> ResponseEntity.ok(calls.incrementAndGet()));
+        service.execute(null, "POST /api/orders", "body", () -> ResponseEntity.ok(calls.incrementAndGet()));
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void execute_WithRepeatedKey_ShouldReplayStoredResponse() {
+        IdempotencyService service = service(Duration.ofHours(1), 10, false);
+        AtomicInteger calls = new AtomicInteger();
+
+        ResponseEntity<?> first = service.execute("k1", "POST /api/orders", "body",
+                () -> ResponseEntity.ok(Map.of("id", calls.incrementAndGet())));
+        ResponseEntity<?> second = service.execute("k1", "POST /api/orders", "body",
+                () -> ResponseEntity.ok(Map.of("id", calls.incrementAndGet())));
+
+        assertEquals(1, calls.get());
+        assertEquals(Map.of("id", 1), first.getBody());
+        assertEquals(HttpStatus.OK, second.getStatusCode());
+        assertEquals("true", second.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals("{\"id\":1}", new String((byte[]) second.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void execute_WithSameKeyAndDifferentPayload_ShouldThrowException() {
+        IdempotencyService service = service(Duration.ofHours(1), 10, false);
+        service.execute("k1", "POST /api/orders", "body", () -> ResponseEntity.ok("done"));
+
+        assertThrows(UnprocessableEntityException.class,
+                () -> service.execute("k1", "POST /api/orders", "other", () -> ResponseEntity.ok("again")));
+        assertThrows(UnprocessableEntityException.class,
+                () -> service.execute("k1", "POST /api/orders/1/payment", "body", () -> ResponseEntity.ok("again")));
+    }
+
+    @Test
+    void execute_WithOverlongKey_ShouldThrowException() {
+        IdempotencyService service = service(Duration.ofHours(1), 10, false);
+
+        assertThrows(BadRequestException.class,
+                () -> service.execute("x".repeat(256), "POST /api/orders", "body", () -> ResponseEntity.ok("done")));
+    }
+
+    @Test
+    void execute_WhenActionFails_ShouldNotRecordResponse() {
+        IdempotencyService service = service(Duration.ofHours(1), 10, false);
+
+        assertThrows(PaymentProcessingException.class, () -> service.execute("k1", "POST /api/orders/1/payment", "body",
+                () -> { throw new PaymentProcessingException("Card declined"); }));
+        ResponseEntity<?> retry = service.execute("k1", "POST /api/orders/1/payment", "body", () -> ResponseEntity.ok("paid"));
+
+        assertEquals("paid", retry.getBody());
+    }
+
+    @Test
+    void execute_WithConcurrentDuplicate_ShouldWaitForFirstExecution() throws Exception {
+        IdempotencyService service = service(Duration.ofHours(1), 10, false);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<ResponseEntity<?>> first = CompletableFuture.supplyAsync(() ->
+                service.execute("k1", "POST /api/orders", "body", () -> {
+                    calls.incrementAndGet();
+                    started.countDown();
+                    await(release);
+                    return ResponseEntity.ok("created");
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<ResponseEntity<?>> duplicate = CompletableFuture.supplyAsync(() ->
+                service.execute("k1", "POST /api/orders", "body", () -> ResponseEntity.ok(calls.incrementAndGet())));
+
+        Thread.sleep(50);
+        assertFalse(duplicate.isDone());
+        release.countDown();
+
+        assertEquals("created", first.get(5, TimeUnit.SECONDS).getBody());
+        assertEquals("\"created\"", new String((byte[]) duplicate.get(5, TimeUnit.SECONDS).getBody(), StandardCharsets.UTF_8));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void execute_WhenEntryExpired_ShouldRunActionAgain() {
+        IdempotencyService service = service(Duration.ofMillis(-1), 10, false);
+        AtomicInteger calls = new AtomicInteger();
+
+        service.execute("k1", "POST /api/orders", "body", () -> ResponseEntity.ok(calls.incrementAndGet()));
+        service.execute("k1", "POST /api/orders", "body", () -> ResponseEntity.ok(calls.incrementAndGet()));
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void execute_WhenCapacityExceeded_ShouldEvictOldestKey() {
+        IdempotencyService service = service(Duration.ofHours(1), 1, false);
+        AtomicInteger calls = new AtomicInteger();
+
+        service.execute("k1", "POST /api/orders", "body", () -> ResponseEntity.ok(calls.incrementAndGet()));
+        service.execute("k2", "POST /api/orders", "body", () -> ResponseEntity.ok(calls.incrementAndGet()));
+        service.execute("k1", "POST /api/orders", "body", () -> ResponseEntity.ok(calls.incrementAndGet()));
+
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void execute_WithPersistence_ShouldStoreAndReplayFromDatabase() {
+        IdempotencyService writer = service(Duration.ofHours(1), 10, true);
+        when(repository.findById("k1")).thenReturn(Optional.empty());
+        writer.execute("k1", "POST /api/orders", List.of("body"), () -> ResponseEntity.ok("created"));
+        verify(repository).save(any(IdempotencyRecord.class));
+
+        IdempotencyRecord saved = mockingDetails(repository).getInvocations().stream()
+                .filter(i -> i.getMethod().getName().equals("save"))
+                .map(i -> (IdempotencyRecord) i.getArgument(0))
+                .findFirst().orElseThrow();
+        assertTrue(saved.getExpiresAt().isAfter(LocalDateTime.now()));
+        when(repository.findById("k1")).thenReturn(Optional.of(saved));
+
+        IdempotencyService restarted = service(Duration.ofHours(1), 10, true);
+        ResponseEntity<?> replay = restarted.execute("k1", "POST /api/orders", List.of("body"),
+                () -> ResponseEntity.ok("created twice"));
+
+        assertEquals("\"created\"", new String((byte[]) replay.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void purgeExpired_WithPersistence_ShouldDeleteExpiredRecords() {
+        IdempotencyService service = service(Duration.ofHours(1), 10, true);
+
+        service.purgeExpired();
+
+        verify(repository).deleteExpired(any(LocalDateTime.class));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
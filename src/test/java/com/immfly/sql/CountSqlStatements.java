@@ -0,0 +1,23 @@
+package com.immfly.sql;
+
+import org.springframework.test.context.TestPropertySource;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Registers {@link SqlStatementCounter} with Hibernate for a Spring test context
+ * and pushes the scheduled jobs that query the database out of the test run.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.immfly.sql.SqlStatementCounter",
+        "spring.jpa.show-sql=false",
+        "metrics.order-status.refresh-interval=PT24H",
+        "payment.pending-sweep-interval=PT24H"
+})
+public @interface CountSqlStatements {
+}
@@ -0,0 +1,28 @@
+package com.immfly.sql;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Statements of each kind run by one call, or the budget allowed for it. */
+public record SqlCounts(int selects, int inserts, int updates, int deletes) {
+
+    public static SqlCounts of(int selects, int inserts, int updates, int deletes) {
+        return new SqlCounts(selects, inserts, updates, deletes);
+    }
+
+    public static SqlCounts selects(int selects) {
+        return new SqlCounts(selects, 0, 0, 0);
+    }
+
+    public boolean exceeds(SqlCounts budget) {
+        return selects > budget.selects || inserts > budget.inserts || updates > budget.updates || deletes > budget.deletes;
+    }
+
+    public void assertWithin(SqlCounts budget, String call) {
+        assertFalse(exceeds(budget), call + " ran " + this + ", over its budget of " + budget);
+    }
+
+    @Override
+    public String toString() {
+        return selects + " select, " + inserts + " insert, " + updates + " update, " + deletes + " delete";
+    }
+}
@@ -0,0 +1,50 @@
+package com.immfly.sql;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hibernate {@link StatementInspector} that counts every statement Hibernate
+ * prepares, by kind. Hibernate instantiates it by class name, so the counts are
+ * global: they include statements run on other threads, such as async payments,
+ * and tests using it must keep scheduled jobs from querying while they measure.
+ * Sequence fetches are not counted: the pooled id generators run one per fifty
+ * inserts, so whether a call pays for one depends on what ran before it.
+ */
+public class SqlStatementCounter implements StatementInspector {
+    private static final AtomicInteger SELECTS = new AtomicInteger();
+    private static final AtomicInteger INSERTS = new AtomicInteger();
+    private static final AtomicInteger UPDATES = new AtomicInteger();
+    private static final AtomicInteger DELETES = new AtomicInteger();
+
+    @Override
+    public String inspect(String sql) {
+        String statement = sql.stripLeading().toLowerCase(Locale.ROOT);
+        if (statement.contains("next value for")) {
+            return sql;
+        }
+        if (statement.startsWith("select") || statement.startsWith("with")) {
+            SELECTS.incrementAndGet();
+        } else if (statement.startsWith("insert")) {
+            INSERTS.incrementAndGet();
+        } else if (statement.startsWith("update")) {
+            UPDATES.incrementAndGet();
+        } else if (statement.startsWith("delete")) {
+            DELETES.incrementAndGet();
+        }
+        return sql;
+    }
+
+    public static void reset() {
+        SELECTS.set(0);
+        INSERTS.set(0);
+        UPDATES.set(0);
+        DELETES.set(0);
+    }
+
+    public static SqlCounts current() {
+        return new SqlCounts(SELECTS.get(), INSERTS.get(), UPDATES.get(), DELETES.get());
+    }
+}